@@ -0,0 +1,84 @@
+package com.example.restservice.api.v1.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Encodes a listing of 100,000 orders as JSON and Smile, uncompressed and compressed the way
+ * {@link OrderCompressionFilter} does, for customers ordering many products each. The encoded size is printed once
+ * per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEncodingBenchmark {
+    private static final int ORDERS = 100_000;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"identity", "gzip", "zstd"})
+    private String encoding;
+
+    @Param({"100", "10000"})
+    private int customers;
+
+    private final OrderCompressionFilter compressionFilter = new OrderCompressionFilter(new OrderCompressionProperties(3, 1));
+    private ObjectMapper objectMapper;
+    private OrderList orderList;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = format.equals("smile")
+            ? new ObjectMapper(SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+            : new ObjectMapper();
+        orderList = new OrderList(LongStream.rangeClosed(1, ORDERS)
+            .mapToObj(orderId -> {
+                final var customer = orderId % customers;
+                return new OrderListItem(orderId, orderId / 7,
+                    "customer" + customer + "@example.com", "First" + customer, "Last" + customer);
+            })
+            .toList());
+
+        final var counter = new CountingOutputStream();
+        encode(counter);
+        System.out.printf("%n%s, %s, %d customers: %d bytes%n", format, encoding, customers, counter.count);
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        encode(OutputStream.nullOutputStream());
+    }
+
+    private void encode(OutputStream target) throws IOException {
+        try (var out = encoding.equals("identity")
+            ? target
+            : compressionFilter.compress(target, OrderCompressionFilter.Encoding.valueOf(encoding.toUpperCase()))) {
+            objectMapper.writeValue(out, orderList);
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.order.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderListingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int orders;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Order> orderEntities;
+    private OrderList orderList;
+    private long[] orderIds;
+    private Long[] productIds;
+    private String[] emails;
+    private String[] firstNames;
+    private String[] lastNames;
+
+    @Setup
+    public void setup() {
+        orderEntities = LongStream.rangeClosed(1, orders).mapToObj(OrderListingBenchmark::order).toList();
+        orderList = OrderResource.toDto(orderEntities, orders);
+        orderIds = orderEntities.stream().mapToLong(Order::getOrderId).toArray();
+        productIds = orderEntities.stream().map(Order::getProductId).toArray(Long[]::new);
+        emails = orderEntities.stream().map(Order::getEmail).toArray(String[]::new);
+        firstNames = orderEntities.stream().map(Order::getFirstName).toArray(String[]::new);
+        lastNames = orderEntities.stream().map(Order::getLastName).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public OrderList toDto() {
+        return OrderResource.toDto(orderEntities, orders);
+    }
+
+    @Benchmark
+    public void serializeOrderList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), orderList);
+    }
+
+    /**
+     * Writes the same listing from its columns, the way {@code GET /order} writes the rows of a result set.
+     */
+    @Benchmark
+    public void writeRows() throws IOException {
+        try (var generator = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+            OrderResource.writeOrderList(generator, orders, rows -> {
+                for (var i = 0; i < orders; i++) {
+                    rows.row(orderIds[i], productIds[i], emails[i], firstNames[i], lastNames[i]);
+                }
+            });
+        }
+    }
+
+    private static Order order(long orderId) {
+        final var customer = orderId % 1000;
+        final var order = new Order(orderId,
+            new Customer(customer, "customer" + customer + "@example.com", "First" + customer, "Last" + customer));
+        ReflectionTestUtils.setField(order, "orderId", orderId);
+        return order;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.RestServiceApplication;
+import com.example.restservice.model.customer.CustomerService;
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderRepository;
+import com.example.restservice.model.order.OrderService;
+import com.example.restservice.model.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Lists and writes a page of orders through managed entities copied into DTOs, through DTO projections and row by row
+ * from the result set, against an in-memory H2 database in PostgreSQL mode. Run with {@code -prof gc} to compare
+ * allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderReadBenchmark {
+    private static final int ORDERS = 10_000;
+
+    @Param({"100", "1000"})
+    private int limit;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(RestServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:orders;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password="
+            )
+            .run();
+        orderService = context.getBean(OrderService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        final var customers = context.getBean(CustomerService.class).getOrCreateAll(LongStream.range(0, 100)
+            .mapToObj(user -> new User("user" + user + "@reqres.in", "First", "Last"))
+            .toList());
+        context.getBean(OrderRepository.class).saveAll(LongStream.range(0, ORDERS)
+            .mapToObj(productId -> new Order(productId, customers.get("user" + productId % 100 + "@reqres.in")))
+            .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entities() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(),
+            OrderResource.toDto(orderService.getPage(null, limit), limit));
+    }
+
+    @Benchmark
+    public void projection() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(),
+            OrderResource.toOrderList(orderService.search(OrderFilter.NONE, null, limit, OrderListItem.class), limit));
+    }
+
+    @Benchmark
+    public void rows() throws IOException {
+        try (var generator = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+            OrderResource.writeOrderList(generator, limit,
+                rows -> orderService.search(OrderFilter.NONE, null, limit, rows));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.RestServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Runs {@link OrderService} against an in-memory H2 database in PostgreSQL mode, with reqres.in replaced by a local
+ * stub serving {@value #USERS} users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSaveBenchmark {
+    private static final int USERS = 100;
+    private static final int BATCH_SIZE = 100;
+
+    private final AtomicLong productIds = new AtomicLong();
+    private HttpServer reqresStub;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup
+    public void setup() throws IOException {
+        reqresStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        reqresStub.createContext("/api/users", exchange -> {
+            final var body = usersPage().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        reqresStub.start();
+
+        context = new SpringApplicationBuilder(RestServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:orders;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "users.reqres.base-uri=http://localhost:" + reqresStub.getAddress().getPort() + "/api/users"
+            )
+            .run();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        reqresStub.stop(0);
+    }
+
+    @Benchmark
+    public Order save() {
+        final var productId = productIds.incrementAndGet();
+        return orderService.save(productId, email(productId));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<OrderCreationResult> saveAll() {
+        final var firstProductId = productIds.getAndAdd(BATCH_SIZE) + 1;
+        return orderService.saveAll(LongStream.range(firstProductId, firstProductId + BATCH_SIZE)
+            .mapToObj(productId -> new OrderKey(email(productId), productId))
+            .toList());
+    }
+
+    private static String email(long productId) {
+        return "user" + productId % USERS + "@reqres.in";
+    }
+
+    private static String usersPage() {
+        final var users = IntStream.range(0, USERS)
+            .mapToObj(id -> String.format(
+                "{\"id\":%d,\"email\":\"user%d@reqres.in\",\"first_name\":\"First%d\",\"last_name\":\"Last%d\"}",
+                id, id, id, id))
+            .collect(Collectors.joining(","));
+
+        return String.format("{\"page\":1,\"per_page\":%d,\"total\":%d,\"total_pages\":1,\"data\":[%s]}",
+            USERS, USERS, users);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.restservice.model.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code getUserByEmail} resolves users through {@link UserDirectoryCache}; {@code linearScan} is the lookup it
+ * replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    private List<User> userList;
+    private String[] emails;
+    private UserDirectoryCache cache;
+
+    @Setup
+    public void setup() {
+        userList = IntStream.range(0, users).mapToObj(id -> new User("user" + id + "@reqres.in", "First" + id, "Last" + id)).toList();
+        emails = userList.stream().map(User::email).toArray(String[]::new);
+        cache = new UserDirectoryCache(
+            () -> userList, Duration.ofDays(1), Duration.ZERO, Runnable::run, Clock.systemUTC(), new SimpleMeterRegistry());
+        cache.get();
+    }
+
+    @Benchmark
+    public Optional<User> getUserByEmail() {
+        return cache.get().find(randomEmail());
+    }
+
+    @Benchmark
+    public Optional<User> linearScan() {
+        final var email = randomEmail();
+        return userList.stream().filter(u -> u.email().equals(email)).findFirst();
+    }
+
+    private String randomEmail() {
+        return emails[ThreadLocalRandom.current().nextInt(users)];
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.restservice.loadtest;
+
+import com.example.restservice.RestServiceApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts the service against {@link ReqresStub} and an in-memory H2 database in PostgreSQL mode, then drives a mix of
+ * {@code GET /order}, {@code GET /order/{id}} and {@code POST /order} at a fixed rate.
+ * <p>
+ * Requests are sent on an open-loop schedule and their latency is measured from the time they were scheduled to be
+ * sent, so a stalled server shows up in the percentiles instead of silently lowering the offered load. Histograms of
+ * the measured phase are printed and written to {@code target/loadtest/<operation>.hgrm}.
+ * <p>
+ * Arguments ({@code name=value}): rate (requests/s), duration, warmup, mix (list/get/create weights), list-limit
+ * (0 streams the whole table), seed-orders, users, per-page, stub-latency, stub-error-rate. Arguments with a dot in
+ * their name are passed to the service as Spring properties, e.g. {@code spring.threads.virtual.enabled=true}.
+ */
+public class LoadTest {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int RECENT_IDS = 1 << 16;
+
+    private enum Operation { LIST, GET, CREATE }
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<Operation, Recorder> recorders = new HashMap<>();
+    private final Map<Operation, LongAdder> errors = new HashMap<>();
+    private final AtomicLongArray recentOrderIds = new AtomicLongArray(RECENT_IDS);
+    private final AtomicLong createdOrders = new AtomicLong();
+    private final AtomicLong productIds = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private URI baseUri;
+    private int users;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        for (final var operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new HashMap<String, String>();
+        Arrays.stream(args)
+            .filter(arg -> arg.contains("="))
+            .forEach(arg -> options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1)));
+
+        new LoadTest(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        users = Integer.parseInt(option("users", "1000"));
+        final var stub = new ReqresStub(
+            users,
+            Integer.parseInt(option("per-page", "100")),
+            duration("stub-latency", "20ms"),
+            Double.parseDouble(option("stub-error-rate", "0"))
+        );
+
+        try (stub; var context = startService(stub.usersUri())) {
+            baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            seed(Integer.parseInt(option("seed-orders", "1000")));
+
+            final var rate = Integer.parseInt(option("rate", "500"));
+            final var mix = Arrays.stream(option("mix", "30,60,10").split(",")).mapToInt(Integer::parseInt).toArray();
+
+            System.out.printf("Warming up for %s at %d requests/s%n", option("warmup", "10s"), rate);
+            drive(rate, mix, duration("warmup", "10s"));
+            recorders.values().forEach(Recorder::reset);
+            errors.values().forEach(LongAdder::reset);
+
+            System.out.printf("Measuring for %s at %d requests/s, mix list/get/create %s%n", option("duration", "30s"), rate, option("mix", "30,60,10"));
+            final var measured = duration("duration", "30s");
+            drive(rate, mix, measured);
+            report(measured);
+        }
+    }
+
+    private ConfigurableApplicationContext startService(URI usersUri) {
+        final var properties = new HashMap<String, Object>(Map.of(
+            "server.port", 0,
+            "spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username", "sa",
+            "spring.datasource.password", "",
+            "users.reqres.base-uri", usersUri
+        ));
+        options.forEach((name, value) -> {
+            if (name.contains(".")) {
+                properties.put(name, value);
+            }
+        });
+
+        return new SpringApplicationBuilder(RestServiceApplication.class).properties(properties).run();
+    }
+
+    private void seed(int orders) {
+        for (int i = 0; i < orders; i++) {
+            send(Operation.CREATE, System.nanoTime()).join();
+        }
+        recorders.values().forEach(Recorder::reset);
+    }
+
+    private void drive(int rate, int[] mix, Duration duration) {
+        final var interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        final var start = System.nanoTime();
+        final var end = start + duration.toNanos();
+        final var total = Arrays.stream(mix).sum();
+
+        long sent = 0;
+        for (long intended = start; intended < end; intended = start + ++sent * interval) {
+            final var wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            final var pick = ThreadLocalRandom.current().nextInt(total);
+            final var operation = pick < mix[0] ? Operation.LIST : pick < mix[0] + mix[1] ? Operation.GET : Operation.CREATE;
+            send(operation, intended);
+        }
+        while (inFlight.get() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private CompletableFuture<Void> send(Operation operation, long intendedStart) {
+        final var request = switch (operation) {
+            case LIST -> {
+                final var limit = Integer.parseInt(option("list-limit", "100"));
+                yield HttpRequest.newBuilder(baseUri.resolve(limit > 0 ? "/order?limit=" + limit : "/order")).GET().build();
+            }
+            case GET -> HttpRequest.newBuilder(baseUri.resolve("/order/" + randomOrderId())).GET().build();
+            case CREATE -> {
+                final var productId = productIds.incrementAndGet();
+                final var email = ReqresStub.email(ThreadLocalRandom.current().nextInt(users));
+                yield HttpRequest.newBuilder(baseUri.resolve("/order"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                        String.format("{\"productId\":%d,\"email\":\"%s\"}", productId, email)))
+                    .build();
+            }
+        };
+
+        inFlight.incrementAndGet();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                inFlight.decrementAndGet();
+                recorders.get(operation).recordValue(
+                    Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart), HIGHEST_TRACKABLE_MICROS));
+                if (error != null || response.statusCode() >= 300) {
+                    errors.get(operation).increment();
+                } else if (operation == Operation.CREATE) {
+                    final var index = createdOrders.getAndIncrement();
+                    recentOrderIds.set((int) (index % RECENT_IDS), Long.parseLong(response.body()));
+                }
+                return null;
+            });
+    }
+
+    private long randomOrderId() {
+        final var known = (int) Math.min(createdOrders.get(), RECENT_IDS);
+        return known == 0 ? 1 : recentOrderIds.get(ThreadLocalRandom.current().nextInt(known));
+    }
+
+    private void report(Duration measured) throws IOException {
+        final var output = Path.of("target", "loadtest");
+        Files.createDirectories(output);
+
+        System.out.printf("%n%-8s %10s %12s %10s %10s %10s %10s %8s%n",
+            "op", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        final var all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long allErrors = 0;
+        for (final var operation : Operation.values()) {
+            final var histogram = recorders.get(operation).getIntervalHistogram();
+            final var operationErrors = errors.get(operation).sum();
+            all.add(histogram);
+            allErrors += operationErrors;
+            print(operation.name().toLowerCase(), histogram, operationErrors, measured);
+
+            try (var out = new PrintStream(output.resolve(operation.name().toLowerCase() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        print("all", all, allErrors, measured);
+        System.out.printf("%nHistograms written to %s%n", output.toAbsolutePath());
+    }
+
+    private static void print(String name, Histogram histogram, long errors, Duration measured) {
+        System.out.printf("%-8s %10d %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+            name,
+            histogram.getTotalCount(),
+            histogram.getTotalCount() / (measured.toMillis() / 1000.0),
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0,
+            errors);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private Duration duration(String name, String defaultValue) {
+        final var value = option(name, defaultValue);
+        return value.endsWith("ms")
+            ? Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)))
+            : Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.restservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-process replacement of {@code https://reqres.in/api/users} serving {@code users} synthetic users in pages of
+ * {@code perPage}. Every response is delayed by {@code latency}; {@code errorRate} of them fail with a 503.
+ */
+class ReqresStub implements AutoCloseable {
+    private final int users;
+    private final int perPage;
+    private final Duration latency;
+    private final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    ReqresStub(int users, int perPage, Duration latency, double errorRate) throws IOException {
+        this.users = users;
+        this.perPage = perPage;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/api/users", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    URI usersUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/api/users");
+    }
+
+    static String email(int id) {
+        return "user" + id + "@reqres.in";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Thread.sleep(latency.toMillis());
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            final var query = exchange.getRequestURI().getQuery();
+            final var page = query == null ? 1 : Integer.parseInt(query.replaceAll(".*page=(\\d+).*", "$1"));
+            final var body = page(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String page(int page) {
+        final var totalPages = (users + perPage - 1) / perPage;
+        final var data = IntStream.range((page - 1) * perPage, Math.min(page * perPage, users))
+            .mapToObj(id -> String.format(
+                "{\"id\":%d,\"email\":\"%s\",\"first_name\":\"First%d\",\"last_name\":\"Last%d\"}", id, email(id), id, id))
+            .collect(Collectors.joining(","));
+
+        return String.format("{\"page\":%d,\"per_page\":%d,\"total\":%d,\"total_pages\":%d,\"data\":[%s]}",
+            page, perPage, users, totalPages, data);
+    }
+}
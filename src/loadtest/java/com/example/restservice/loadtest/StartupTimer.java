@@ -0,0 +1,224 @@
+package com.example.restservice.loadtest;
+
+import com.example.restservice.RestServiceApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the time from launching the service in a new JVM until it answers its first {@code GET /order} and until
+ * its readiness probe is up, and its peak resident set size by then, with and without the {@code fast-startup} profile
+ * and a class data sharing archive; and of the native image when one is given.
+ * <p>
+ * The service runs from the jar extracted by {@code java -Djarmode=tools -jar ... extract} against {@link ReqresStub}
+ * and an in-memory H2 database; the archive is created by a training run that exits once the context is refreshed.
+ * Logs of every run are written to the {@code dir} of the extracted jar.
+ * <p>
+ * Arguments ({@code name=value}): jar (the extracted jar), native (the executable built by {@code native:compile},
+ * which has no H2 driver: pass a {@code spring.datasource.url} too), runs, users. Arguments with a dot in their name
+ * are passed to the service as Spring properties.
+ */
+public class StartupTimer {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final Path jar;
+    private final Path dir;
+    private final String classpath;
+
+    private URI usersUri;
+
+    private StartupTimer(Map<String, String> options) {
+        this.options = options;
+        this.jar = Path.of(options.getOrDefault("jar", "target/startup/rest-service.jar")).toAbsolutePath();
+        this.dir = jar.getParent();
+        // the extracted jar lists its libraries in its manifest, H2 is added from the test classpath
+        this.classpath = jar + File.pathSeparator + location(org.h2.Driver.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new HashMap<String, String>();
+        Arrays.stream(args)
+            .filter(arg -> arg.contains("="))
+            .forEach(arg -> options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1)));
+
+        new StartupTimer(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        final var runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        try (var stub = new ReqresStub(Integer.parseInt(options.getOrDefault("users", "1000")), 100, Duration.ofMillis(20), 0)) {
+            usersUri = stub.usersUri();
+
+            final var archive = dir.resolve("application.jsa");
+            System.out.println("Training run for " + archive);
+            final var training = launch("training", freePort(), java(List.of(
+                "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh")), "default");
+            if (!training.waitFor(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || training.exitValue() != 0) {
+                training.destroyForcibly();
+                throw new IllegalStateException("Training run failed, see " + dir.resolve("training.log"));
+            }
+
+            System.out.printf("%n%-8s %-14s %-4s %16s %10s %8s%n", "build", "profile", "cds", "first request ms", "ready ms", "rss MB");
+            for (final var profile : List.of("default", "fast-startup")) {
+                for (final var cds : List.of(false, true)) {
+                    report("jvm", profile, cds ? "yes" : "no", runs,
+                        java(cds ? List.of("-XX:SharedArchiveFile=" + archive) : List.of()));
+                }
+            }
+            if (options.containsKey("native")) {
+                for (final var profile : List.of("default", "fast-startup")) {
+                    report("native", profile, "-", runs, List.of(Path.of(options.get("native")).toAbsolutePath().toString()));
+                }
+            }
+            System.out.printf("%nMedian of %d runs, logs written to %s%n", runs, dir);
+        }
+    }
+
+    private void report(String build, String profile, String cds, int runs, List<String> executable) throws IOException {
+        final var firstRequest = new long[runs];
+        final var ready = new long[runs];
+        final var rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            final var timings = measure(build + "-" + profile + (cds.equals("yes") ? "-cds-" : "-") + i, profile, executable);
+            firstRequest[i] = timings[0];
+            ready[i] = timings[1];
+            rss[i] = timings[2];
+        }
+        System.out.printf("%-8s %-14s %-4s %16d %10d %8d%n",
+            build, profile, cds, median(firstRequest), median(ready), median(rss));
+    }
+
+    /**
+     * Milliseconds from launching the service until the first successful {@code GET /order} and until readiness is up,
+     * and the peak resident set size in MB by then.
+     */
+    private long[] measure(String name, String profile, List<String> executable) throws IOException {
+        final var port = freePort();
+        final var start = System.nanoTime();
+        final var process = launch(name, port, executable, profile);
+        try {
+            final var base = URI.create("http://localhost:" + port);
+            final var firstRequest = awaitOk(process, base.resolve("/order?limit=100"), start);
+            final var ready = awaitOk(process, base.resolve("/actuator/health/readiness"), start);
+            return new long[]{firstRequest, ready, peakRssMegabytes(process)};
+        } finally {
+            process.destroy();
+            try {
+                process.waitFor(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long awaitOk(Process process, URI uri, long start) {
+        final var deadline = start + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + dir);
+            }
+            try {
+                final var response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                // not listening yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        throw new IllegalStateException("No response from " + uri + " within " + TIMEOUT);
+    }
+
+    private List<String> java(List<String> jvmOptions) {
+        final var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", classpath, RestServiceApplication.class.getName()));
+        return command;
+    }
+
+    private Process launch(String name, int port, List<String> executable, String profile) throws IOException {
+        final var command = new ArrayList<>(executable);
+
+        final var properties = new HashMap<String, String>(Map.of(
+            "server.port", String.valueOf(port),
+            "spring.profiles.active", profile,
+            "spring.datasource.url", "jdbc:h2:mem:startup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username", "sa",
+            "spring.datasource.password", "",
+            "users.reqres.base-uri", usersUri.toString(),
+            "management.endpoint.health.probes.enabled", "true"
+        ));
+        options.forEach((option, value) -> {
+            if (option.contains(".")) {
+                properties.put(option, value);
+            }
+        });
+        properties.forEach((property, value) -> command.add("--" + property + "=" + value));
+
+        final var log = dir.resolve(name + ".log");
+        Files.deleteIfExists(log);
+        return new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+    }
+
+    /**
+     * VmHWM of the process, Linux only: 0 elsewhere.
+     */
+    private static long peakRssMegabytes(Process process) throws IOException {
+        final var status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        try (var lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmHWM:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                .findFirst()
+                .orElse(0);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        final var sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot locate " + type, e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.restservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The connections of read-only transactions: taken from the healthy replicas in turn, and from the primary while
+ * none is healthy. A replica is healthy when {@link #checkHealth()} last reached it and found it replaying the
+ * primary's changes within {@code maxLag}; one whose pool fails to hand out a connection is marked unhealthy at once.
+ */
+class ReadReplicaDataSource extends AbstractDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+    /**
+     * Seconds since the last replayed transaction, 0 when there is nothing left to replay or the database is not a
+     * standby at all, and {@code null} when a standby does not receive changes.
+     */
+    static final String LAG_QUERY = "select case "
+        + "when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+        + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    ReadReplicaDataSource(
+        final DataSource primary,
+        final List<Replica> replicas,
+        final Duration maxLag,
+        final MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+
+        this.replicaReads = meterRegistry.counter("orders.replicas.reads", "target", "replica");
+        this.primaryReads = meterRegistry.counter("orders.replicas.reads", "target", "primary");
+        Gauge.builder("orders.replicas.healthy", this, ReadReplicaDataSource::healthy).register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        for (int i = 0; i < replicas.size(); i++) {
+            final var replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                final var connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                unhealthy(replica, e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    int healthy() {
+        return (int) replicas.stream().filter(Replica::healthy).count();
+    }
+
+    void checkHealth() {
+        for (final var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection();
+                 var statement = connection.prepareStatement(LAG_QUERY);
+                 var result = statement.executeQuery()) {
+                result.next();
+                final var lag = result.getDouble(1);
+                if (result.wasNull()) {
+                    unhealthy(replica, "not receiving changes from the primary");
+                } else if (lag > maxLagSeconds) {
+                    replica.lagSeconds = lag;
+                    unhealthy(replica, String.format("%.1f s behind the primary", lag));
+                } else {
+                    replica.lagSeconds = lag;
+                    if (!replica.healthy) {
+                        log.info("Replica {} is healthy again", replica.name);
+                    }
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                unhealthy(replica, e.getMessage());
+            }
+        }
+    }
+
+    private static void unhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Replica {} is unhealthy, reads go to the other replicas or the primary: {}", replica.name, reason);
+        }
+        replica.healthy = false;
+        replica.status = reason;
+    }
+
+    static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+        private volatile String status;
+
+        Replica(final String name, final DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+
+        boolean healthy() {
+            return healthy;
+        }
+
+        double lagSeconds() {
+            return lagSeconds;
+        }
+
+        String status() {
+            return healthy ? "healthy" : status;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.restservice;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("orders.replicas")
+public record ReadReplicaProperties(
+    @DefaultValue
+    List<String> urls,
+
+    String username,
+
+    String password,
+
+    @DefaultValue("10")
+    int maximumPoolSize,
+
+    @DefaultValue("2")
+    int minimumIdle,
+
+    @DefaultValue("1s")
+    Duration connectionTimeout,
+
+    @DefaultValue
+    HealthCheck healthCheck
+) {
+    public record HealthCheck(
+        @DefaultValue("5s")
+        Duration interval,
+
+        @DefaultValue("10s")
+        Duration maxLag
+    ) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.restservice;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends read-only transactions to the read replicas in {@link ReadReplicaProperties#urls()} and everything else to
+ * the primary, the data source Spring Boot configures from {@code spring.datasource}. The primary is wrapped into a
+ * {@link LazyConnectionDataSourceProxy}, which fetches a connection only at the first statement of a transaction, by
+ * then marked read-only or not, and takes a read-only one from a {@link ReadReplicaDataSource}.
+ * <p>
+ * Every replica gets a Hikari pool of its own, sized by {@code orders.replicas}, and is checked every
+ * {@code orders.replicas.health-check.interval}. This health indicator stays up while replicas are down: reads fall
+ * back to the primary, so the instance still serves every request.
+ */
+@Component
+@Profile("!reactive")
+@Conditional(ReadReplicaRouting.ReplicasConfigured.class)
+class ReadReplicaRouting implements BeanPostProcessor, HealthIndicator, DisposableBean {
+    private final ObjectProvider<ReadReplicaProperties> properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ScheduledExecutorService healthCheck = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("replica-health-check").daemon().factory());
+
+    private ReadReplicaDataSource replicas;
+
+    // resolved when the data source is created, which is after every post-processor the meter registry needs
+    @Autowired
+    ReadReplicaRouting(
+        final ObjectProvider<ReadReplicaProperties> properties,
+        final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource primary) || replicas != null) {
+            return bean;
+        }
+
+        final var config = properties.getObject();
+        final var registry = meterRegistry.getObject();
+        final var pools = new ArrayList<ReadReplicaDataSource.Replica>();
+        for (int i = 0; i < config.urls().size(); i++) {
+            final var pool = new HikariConfig();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(config.urls().get(i));
+            pool.setUsername(Objects.requireNonNullElse(config.username(), primary.getUsername()));
+            pool.setPassword(Objects.requireNonNullElse(config.password(), primary.getPassword()));
+            pool.setMaximumPoolSize(config.maximumPoolSize());
+            pool.setMinimumIdle(config.minimumIdle());
+            pool.setConnectionTimeout(config.connectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // a replica that is down at startup is only reported unhealthy
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.add(new ReadReplicaDataSource.Replica(config.urls().get(i), new HikariDataSource(pool)));
+        }
+        replicas = new ReadReplicaDataSource(primary, pools, config.healthCheck().maxLag(), registry);
+
+        final var interval = config.healthCheck().interval().toMillis();
+        healthCheck.scheduleWithFixedDelay(replicas::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+
+        final var routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicas);
+        return routing;
+    }
+
+    @Override
+    public Health health() {
+        if (replicas == null) {
+            return Health.unknown().build();
+        }
+        final Map<String, Object> details = new LinkedHashMap<>();
+        for (final var replica : replicas.replicas()) {
+            details.put(replica.name(), Map.of("status", replica.status(), "lagSeconds", replica.lagSeconds()));
+        }
+        return Health.up().withDetail("healthy", replicas.healthy()).withDetail("replicas", details).build();
+    }
+
+    @Override
+    public void destroy() {
+        healthCheck.shutdownNow();
+        if (replicas != null) {
+            replicas.replicas().forEach(replica -> ((HikariDataSource) replica.dataSource()).close());
+        }
+    }
+
+    // matches both orders.replicas.urls=a,b and orders.replicas.urls[0]=a
+    static class ReplicasConfigured implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return Binder.get(context.getEnvironment())
+                .bind("orders.replicas.urls", Bindable.listOf(String.class))
+                .map(urls -> !urls.isEmpty())
+                .orElse(false);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.restservice;
+
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.exceptions.UserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the user directory and sends the order requests in {@link StartupWarmupProperties#paths()} to this instance a
+ * few hundred times once it has started, so that neither the first orders wait for reqres.in nor the first requests
+ * run interpreted. The warm-up runs on its own thread after the application is ready, startup does not wait for it;
+ * instead this health indicator is out of service until it is done, which holds the readiness probe when it is
+ * included in the readiness group. The requests carry a token of this instance in {@link #TOKEN_HEADER}, by which
+ * admission control lets them through.
+ */
+@Component
+@Lazy(false)
+@Profile("!reactive")
+@ConditionalOnProperty("startup.warmup.enabled")
+public class StartupWarmup implements HealthIndicator {
+    public static final String TOKEN_HEADER = "X-Warm-Up-Token";
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final ReqresUserProvider userProvider;
+    private final int iterations;
+    private final List<String> paths;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final String token = UUID.randomUUID().toString();
+
+    private volatile int port;
+    private volatile boolean done;
+
+    @Autowired
+    StartupWarmup(final ReqresUserProvider userProvider, final StartupWarmupProperties properties) {
+        this.userProvider = userProvider;
+        this.iterations = properties.iterations();
+        this.paths = properties.paths();
+    }
+
+    @EventListener
+    void webServerInitialized(WebServerInitializedEvent event) {
+        port = event.getWebServer().getPort();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        Thread.ofPlatform().name("startup-warmup").daemon().start(this::warmUp);
+    }
+
+    @Override
+    public Health health() {
+        return done ? Health.up().build() : Health.outOfService().withDetail("warmup", "running").build();
+    }
+
+    /**
+     * Whether a request with {@code token} in {@link #TOKEN_HEADER} was sent by the warm-up, which is still running.
+     */
+    public boolean isWarmUp(String token) {
+        return !done && this.token.equals(token);
+    }
+
+    void warmUp() {
+        final var start = System.nanoTime();
+        try {
+            userProvider.getUsers();
+        } catch (UserException e) {
+            log.warn("Failed to load users during warm-up", e);
+        }
+
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (final var path : paths) {
+                    httpClient.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                            .header("Accept-Encoding", "zstd, gzip")
+                            .header(TOKEN_HEADER, token)
+                            .GET()
+                            .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Stopped warm-up requests", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        done = true;
+        log.info("Warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
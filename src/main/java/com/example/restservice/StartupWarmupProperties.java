@@ -0,0 +1,19 @@
+package com.example.restservice;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties("startup.warmup")
+public record StartupWarmupProperties(
+    @DefaultValue("false")
+    boolean enabled,
+
+    @DefaultValue("200")
+    int iterations,
+
+    @DefaultValue({"/order?limit=100", "/order/1"})
+    List<String> paths
+) {
+}
@@ -0,0 +1,133 @@
+package com.example.restservice.api.v1.order;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests in flight to a limit that follows their latency, after the gradient algorithm of Netflix'
+ * concurrency-limits: once per {@code window} the average latency of the window is compared with a long-term average.
+ * While it stays within {@code tolerance} times the long-term average the limit grows by its square root, as long as
+ * the requests use at least half of it; beyond that the limit shrinks in proportion to the rise. So the limit settles
+ * where requests start to queue for the database or the user directory, instead of at a number configured up front.
+ * <p>
+ * Latencies are summed in striped adders and the limit is recomputed by whichever request ends a window, so apart
+ * from that one request per window, neither admitting nor completing a request takes a lock.
+ */
+class AdaptiveConcurrencyLimit {
+    // weight of a window in the long-term average, about the last 20 windows
+    private static final double LONG_TERM_WEIGHT = 0.05;
+    // weight of a new estimate in the limit
+    private static final double SMOOTHING = 0.2;
+
+    private final int min;
+    private final int max;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final AtomicLong windowStart;
+    // guarded by this
+    private double estimatedLimit;
+    private double longTermLatency;
+
+    AdaptiveConcurrencyLimit(
+        final String name,
+        final int initial,
+        final int min,
+        final int max,
+        final double tolerance,
+        final Duration window,
+        final LongSupplier nanoTime,
+        final MeterRegistry meterRegistry) {
+        this.min = min;
+        this.max = max;
+        this.tolerance = tolerance;
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.limit = initial;
+        this.estimatedLimit = initial;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+
+        Gauge.builder(name + ".limit", this, AdaptiveConcurrencyLimit::limit).register(meterRegistry);
+        Gauge.builder(name + ".in_flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Admits a request unless the limit is reached; an admitted request must be {@link #release released}.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            final var current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request that took {@code latencyNanos}, or that is not to be measured when negative.
+     */
+    void release(long latencyNanos) {
+        if (latencyNanos >= 0) {
+            latencySum.add(latencyNanos);
+            latencyCount.increment();
+        }
+        final var inFlightBefore = inFlight.getAndDecrement();
+
+        final var now = nanoTime.getAsLong();
+        final var start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            update(inFlightBefore);
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(int inFlight) {
+        final var count = latencyCount.sumThenReset();
+        final var sum = latencySum.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+
+        final double latency = (double) sum / count;
+        if (longTermLatency == 0) {
+            longTermLatency = latency;
+        } else {
+            longTermLatency += (latency - longTermLatency) * LONG_TERM_WEIGHT;
+            // after a sustained rise the long-term average stays high; let it recover once latency is back to normal
+            if (longTermLatency > 2 * latency) {
+                longTermLatency *= 0.95;
+            }
+        }
+        if (inFlight < estimatedLimit / 2) {
+            // too little traffic to tell whether a higher limit would queue
+            return;
+        }
+
+        final var gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermLatency / latency));
+        final var newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(min, Math.min(max, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.restservice.api.v1.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client that refills at {@code rate} tokens per second and holds at most {@code burst}.
+ * <p>
+ * A bucket is a single number, the time at which it will be full again (the generic cell rate algorithm): a request
+ * takes a token by moving that time one refill interval ahead, which it may while the time stays within {@code burst}
+ * intervals from now. Taking a token is one compare-and-set on the client's own bucket, so clients never contend with
+ * each other. A bucket unused for long enough to be full is dropped and simply recreated full; beyond
+ * {@code maximumClients} the least recently used buckets are dropped early.
+ */
+class ClientRateLimiter {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoTime;
+    private final Cache<String, AtomicLong> buckets;
+
+    ClientRateLimiter(
+        final String name,
+        final double rate,
+        final int burst,
+        final long maximumClients,
+        final LongSupplier nanoTime,
+        final MeterRegistry meterRegistry) {
+        this.intervalNanos = (long) (Duration.ofSeconds(1).toNanos() / rate);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maximumClients)
+            .expireAfterAccess(Duration.ofNanos(intervalNanos * burst))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, name);
+    }
+
+    /**
+     * Takes a token from the bucket of {@code client}; returns 0 when it did, or else the nanoseconds until a token is
+     * available.
+     */
+    long tryAcquire(String client) {
+        final var now = nanoTime.getAsLong();
+        final var bucket = buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            final var full = bucket.get();
+            final var next = Math.max(full, now) + intervalNanos;
+            final var wait = next - now - intervalNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.restservice.api.v1.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CreateOrderResult(Integer status, Long orderId, String error) {
+}
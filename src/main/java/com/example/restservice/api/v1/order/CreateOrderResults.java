@@ -0,0 +1,6 @@
+package com.example.restservice.api.v1.order;
+
+import java.util.List;
+
+public record CreateOrderResults(List<CreateOrderResult> results) {
+}
@@ -0,0 +1,121 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.StartupWarmup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Admission control in front of the order endpoints. Each client gets a {@link ClientRateLimiter token bucket}, and
+ * is answered with {@code 429 Too Many Requests} once it is empty; all clients together are held to an
+ * {@link AdaptiveConcurrencyLimit adaptive number of requests in flight}, beyond which requests are shed with
+ * {@code 503 Service Unavailable}. Both carry {@code Retry-After}.
+ * <p>
+ * A client is identified by its {@code X-API-Key} header when that is one of the configured API keys, and by its
+ * address otherwise: an unknown key would let a client pick a fresh bucket for every request.
+ * <p>
+ * The requests of the {@link StartupWarmup} are let through unchecked: they would empty the bucket of their address
+ * and teach the adaptive limit the latencies of a cold instance.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "orders.admission.enabled", havingValue = "true")
+class OrderAdmissionFilter extends OncePerRequestFilter {
+    static final String API_KEY = "X-API-Key";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Set<String> apiKeys;
+    private final Optional<StartupWarmup> startupWarmup;
+    private final String rateLimitedMessage;
+
+    private final Counter acceptedByApiKey;
+    private final Counter acceptedByAddress;
+    private final Counter rateLimitedByApiKey;
+    private final Counter rateLimitedByAddress;
+    private final Counter shedByApiKey;
+    private final Counter shedByAddress;
+
+    @Autowired
+    OrderAdmissionFilter(
+        final OrderAdmissionProperties properties,
+        final Optional<StartupWarmup> startupWarmup,
+        final MeterRegistry meterRegistry) {
+        final var rateLimit = properties.rateLimit();
+        final var concurrency = properties.concurrencyLimit();
+        this.rateLimiter = new ClientRateLimiter("orders.admission.clients", rateLimit.rate(), rateLimit.burst(),
+            rateLimit.maximumClients(), System::nanoTime, meterRegistry);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit("orders.admission.concurrency", concurrency.initial(),
+            concurrency.min(), concurrency.max(), concurrency.tolerance(), concurrency.window(), System::nanoTime,
+            meterRegistry);
+        this.apiKeys = Set.copyOf(rateLimit.apiKeys());
+        this.startupWarmup = startupWarmup;
+        this.rateLimitedMessage = String.format("Rate limit of %s requests per second exceeded",
+            BigDecimal.valueOf(rateLimit.rate()).stripTrailingZeros().toPlainString());
+
+        this.acceptedByApiKey = decisions(meterRegistry, "accepted", "api_key");
+        this.acceptedByAddress = decisions(meterRegistry, "accepted", "address");
+        this.rateLimitedByApiKey = decisions(meterRegistry, "rate_limited", "api_key");
+        this.rateLimitedByAddress = decisions(meterRegistry, "rate_limited", "address");
+        this.shedByApiKey = decisions(meterRegistry, "shed", "api_key");
+        this.shedByAddress = decisions(meterRegistry, "shed", "address");
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, String decision, String client) {
+        return meterRegistry.counter("orders.admission", "decision", decision, "client", client);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        final var path = request.getRequestURI().substring(request.getContextPath().length());
+        return (!path.equals("/order") && !path.startsWith("/order/"))
+            || startupWarmup.isPresent() && startupWarmup.get().isWarmUp(request.getHeader(StartupWarmup.TOKEN_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        final var apiKey = request.getHeader(API_KEY);
+        final var byApiKey = apiKey != null && apiKeys.contains(apiKey);
+
+        final var wait = rateLimiter.tryAcquire(byApiKey ? "key:" + apiKey : "address:" + request.getRemoteAddr());
+        if (wait > 0) {
+            (byApiKey ? rateLimitedByApiKey : rateLimitedByAddress).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.ceilDiv(wait, Duration.ofSeconds(1).toNanos())));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), rateLimitedMessage);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            (byApiKey ? shedByApiKey : shedByAddress).increment();
+            // without an error page: shedding has to cost next to nothing
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        (byApiKey ? acceptedByApiKey : acceptedByAddress).increment();
+        final var start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // a request that went asynchronous, like the order feed, ended its work here but not its response
+            concurrencyLimit.release(request.isAsyncStarted() ? -1 : System.nanoTime() - start);
+        }
+    }
+}
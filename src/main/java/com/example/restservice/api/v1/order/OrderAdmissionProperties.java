@@ -0,0 +1,49 @@
+package com.example.restservice.api.v1.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("orders.admission")
+public record OrderAdmissionProperties(
+    @DefaultValue
+    RateLimit rateLimit,
+
+    @DefaultValue
+    ConcurrencyLimit concurrencyLimit
+) {
+    public record RateLimit(
+        @DefaultValue("20")
+        double rate,
+
+        @DefaultValue("40")
+        int burst,
+
+        @DefaultValue
+        List<String> apiKeys,
+
+        @DefaultValue("100000")
+        long maximumClients
+    ) {
+    }
+
+    public record ConcurrencyLimit(
+        @DefaultValue("20")
+        int initial,
+
+        @DefaultValue("4")
+        int min,
+
+        @DefaultValue("200")
+        int max,
+
+        @DefaultValue("2")
+        double tolerance,
+
+        @DefaultValue("1s")
+        Duration window
+    ) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.restservice.api.v1.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.cache")
+public record OrderCacheProperties(
+    @DefaultValue("10000")
+    long maximumSize,
+
+    @DefaultValue("10m")
+    Duration expireAfterWrite,
+
+    @DefaultValue("false")
+    boolean serialized
+) {
+}
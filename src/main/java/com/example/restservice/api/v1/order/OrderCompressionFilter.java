@@ -0,0 +1,335 @@
+package com.example.restservice.api.v1.order;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the order listings of {@code GET /order} with zstd or gzip, whichever {@code Accept-Encoding} prefers
+ * (zstd on a tie). The body is compressed while it is written, so a streamed listing is never buffered whole. Clients
+ * accepting neither get the listing uncompressed.
+ * <p>
+ * A compressed listing is a representation of its own with a strong ETag of its own: the encoding is appended to the
+ * listing's ETag, and removed again from the {@code If-None-Match} tags of the request.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "orders.compression.enabled", havingValue = "true", matchIfMissing = true)
+@ImportRuntimeHints(OrderCompressionFilter.ZstdRuntimeHints.class)
+class OrderCompressionFilter extends OncePerRequestFilter {
+
+    enum Encoding {
+        // in order of preference
+        ZSTD("zstd"),
+        GZIP("gzip");
+
+        private final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+    }
+
+    private final OrderCompressionProperties properties;
+
+    @Autowired
+    OrderCompressionFilter(final OrderCompressionProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+            || !request.getRequestURI().equals(request.getContextPath() + "/order");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        final var encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final var compressingResponse = new CompressingResponse(response, encoding);
+        try {
+            filterChain.doFilter(new EncodedRequest(request, encoding), compressingResponse);
+        } finally {
+            compressingResponse.finish();
+        }
+    }
+
+    /**
+     * The supported encoding with the highest quality in {@code acceptEncoding}, or null when none is acceptable.
+     */
+    static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        final var qualities = qualities(acceptEncoding);
+        final var wildcard = qualities.getOrDefault("*", 0.0);
+        Encoding best = null;
+        var bestQuality = 0.0;
+        for (final var encoding : Encoding.values()) {
+            final var quality = qualities.getOrDefault(encoding.token, wildcard);
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static Map<String, Double> qualities(String acceptEncoding) {
+        final var qualities = new HashMap<String, Double>();
+        for (final var coding : acceptEncoding.split(",")) {
+            final var parameters = coding.split(";");
+            var quality = 1.0;
+            for (int i = 1; i < parameters.length; i++) {
+                final var parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            qualities.put(parameters[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+        return qualities;
+    }
+
+    /**
+     * The ETag of {@code etag}'s representation in {@code encoding}.
+     */
+    static String encodeEtag(String etag, Encoding encoding) {
+        if (etag == null || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.token + '"';
+    }
+
+    /**
+     * The tags of an {@code If-None-Match} header that name representations in {@code encoding}, without the
+     * encoding; null when there are none. Tags of other representations cannot match and are dropped.
+     */
+    static String decodeEtags(String ifNoneMatch, Encoding encoding) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        final var suffix = "-" + encoding.token + '"';
+        final var tags = Arrays.stream(ifNoneMatch.split(","))
+            .map(String::trim)
+            .filter(tag -> tag.equals("*") || tag.endsWith(suffix))
+            .map(tag -> tag.equals("*") ? tag : tag.substring(0, tag.length() - suffix.length()) + '"')
+            .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? null : tags;
+    }
+
+    OutputStream compress(OutputStream target, Encoding encoding) throws IOException {
+        return switch (encoding) {
+            // buffers are reused across responses instead of allocated (and freed by a finalizer) for each one
+            case ZSTD -> new ZstdOutputStreamNoFinalizer(target, RecyclingBufferPool.INSTANCE)
+                .setLevel(properties.zstdLevel());
+            case GZIP -> new GZIPOutputStream(target, 8192, true) {
+                {
+                    def.setLevel(properties.gzipLevel());
+                }
+            };
+        };
+    }
+
+    private static class EncodedRequest extends HttpServletRequestWrapper {
+        private final Encoding encoding;
+
+        EncodedRequest(HttpServletRequest request, Encoding encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return decodeEtags(String.join(",", Collections.list(super.getHeaders(name))), encoding);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                final var tags = getHeader(name);
+                return tags == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(tags));
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    /**
+     * Sets {@code Content-Encoding} once a body is written, so that an error sent before is passed on uncompressed,
+     * drops the content length, which no longer matches the compressed body, and tells the encoding in the ETag.
+     */
+    private class CompressingResponse extends HttpServletResponseWrapper {
+        private final Encoding encoding;
+        private CompressingOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, Encoding encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                final var target = super.getOutputStream();
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token);
+                outputStream = new CompressingOutputStream(target, compress(target, encoding));
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                super.setHeader(name, encodeEtag(value, encoding));
+            } else if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                super.addHeader(name, encodeEtag(value, encoding));
+            } else if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (outputStream != null) {
+                outputStream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.close();
+            } else if (outputStream != null) {
+                outputStream.close();
+            }
+        }
+    }
+
+    private static class CompressingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+        private final OutputStream compressor;
+        private boolean closed;
+
+        CompressingOutputStream(ServletOutputStream target, OutputStream compressor) {
+            this.target = target;
+            this.compressor = compressor;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            compressor.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            compressor.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            compressor.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                compressor.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * zstd-jni extracts its native library from the jar and reads the stream positions from JNI.
+     */
+    static class ZstdRuntimeHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("*/*/libzstd-jni-*");
+            hints.jni().registerType(ZstdOutputStreamNoFinalizer.class, MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.restservice.api.v1.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("orders.compression")
+public record OrderCompressionProperties(
+    @DefaultValue("3")
+    int zstdLevel,
+
+    @DefaultValue("1")
+    int gzipLevel
+) {
+}
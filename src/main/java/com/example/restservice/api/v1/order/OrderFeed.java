@@ -0,0 +1,312 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.order.OrderCreatedEvent;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent events of the orders committed on this instance, for {@code GET /order/stream}.
+ * <p>
+ * Every committed order is encoded once into a ring buffer of {@link OrderFeedProperties#bufferSize()} events that
+ * all subscribers read from, each on its own virtual thread and at its own pace. A subscriber that resumes after an
+ * order id, or falls so far behind that its next event was overwritten, reads the orders after the last one it was
+ * sent from the database in keyset pages and then continues from the buffer; a slow subscriber never holds more than
+ * the buffer. Delivery is at least once: an order committed while a subscriber reads from the database can be sent
+ * twice.
+ * <p>
+ * Orders created by other instances are not seen live, and a resumed subscriber misses an order that committed after
+ * a higher order id was sent to it: order ids are handed out in blocks, not in commit order.
+ */
+@Component
+@Profile("!reactive")
+class OrderFeed {
+    private static final Logger log = LoggerFactory.getLogger(OrderFeed.class);
+
+    static final int REPLAY_PAGE_SIZE = 500;
+    private static final OrderFilter LATEST = new OrderFilter(null, null, null, null, Sort.Direction.DESC);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(1);
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final long heartbeatNanos;
+    private final long timeoutMillis;
+
+    private final AtomicReferenceArray<Event> events;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // guarded by lock
+    private long nextSequence;
+    private volatile long published = -1;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter resumed;
+    private final Counter lagged;
+
+    private record Event(long sequence, long orderId, byte[] frame) {
+    }
+
+    @Autowired
+    OrderFeed(
+        final OrderService orderService,
+        final ObjectMapper objectMapper,
+        final OrderFeedProperties properties,
+        final MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.heartbeatNanos = properties.heartbeat().toNanos();
+        this.timeoutMillis = properties.timeout().toMillis();
+        this.events = new AtomicReferenceArray<>(properties.bufferSize());
+
+        this.resumed = meterRegistry.counter("orders.feed.replays", "reason", "resumed");
+        this.lagged = meterRegistry.counter("orders.feed.replays", "reason", "lagged");
+        Gauge.builder("orders.feed.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrderCreated(OrderCreatedEvent event) {
+        final var item = OrderResource.toListItem(event.order());
+        final var frame = frame(item);
+
+        lock.lock();
+        try {
+            final var sequence = nextSequence++;
+            events.set(index(sequence), new Event(sequence, item.orderId(), frame));
+            published = sequence;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams the orders committed from now on to {@code async}, after the stored orders with an id greater than
+     * {@code after} when it is not {@code null}. Returns without waiting; the stream ends when the client disconnects
+     * or after {@link OrderFeedProperties#timeout()}.
+     */
+    void subscribe(AsyncContext async, Long after) {
+        async.setTimeout(timeoutMillis);
+        final var subscriber = new Subscriber(async, after);
+        async.addListener(subscriber);
+        subscriber.thread = Thread.ofVirtual().name("orders-feed").start(subscriber::run);
+    }
+
+    int subscribers() {
+        return subscribers.get();
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % events.length());
+    }
+
+    private byte[] frame(OrderListItem item) {
+        try {
+            return ("id: " + item.orderId() + "\nevent: order\ndata: " + objectMapper.writeValueAsString(item) + "\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits until the event at {@code sequence} is published, at most {@code nanos}; false when it is not by then.
+     */
+    private boolean awaitPublished(long sequence, long nanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (published < sequence) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class Subscriber implements AsyncListener {
+        private final AsyncContext async;
+        private final Long after;
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        // the next event to read from the buffer
+        private long cursor;
+        // the highest order id sent, and the first event that cannot have been sent by the last replay already
+        private long lastSent;
+        private long replayEnd;
+
+        Subscriber(AsyncContext async, Long after) {
+            this.async = async;
+            this.after = after;
+        }
+
+        void run() {
+            subscribers.incrementAndGet();
+            try {
+                if (after == null) {
+                    cursor = published + 1;
+                    // where to resume from should this subscriber fall behind before it was sent anything
+                    lastSent = latestOrderId();
+                }
+                // commits the response: the client knows it is subscribed
+                final var out = async.getResponse().getOutputStream();
+                out.write(HEARTBEAT);
+                out.flush();
+
+                if (after != null) {
+                    resumed.increment();
+                    replay(out, after);
+                }
+
+                while (!closed) {
+                    if (cursor > published) {
+                        if (!awaitPublished(cursor, heartbeatNanos)) {
+                            out.write(HEARTBEAT);
+                            out.flush();
+                        }
+                        continue;
+                    }
+
+                    final var event = events.get(index(cursor));
+                    if (event.sequence() != cursor) {
+                        // overwritten while this subscriber was behind
+                        lagged.increment();
+                        replay(out, lastSent);
+                        continue;
+                    }
+                    cursor++;
+                    if (event.sequence() < replayEnd && event.orderId() <= lastSent) {
+                        continue;
+                    }
+
+                    out.write(event.frame());
+                    lastSent = Math.max(lastSent, event.orderId());
+                    if (cursor > published) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.debug("Order feed subscriber disconnected", e);
+            } catch (InterruptedException e) {
+                // closed
+            } catch (RuntimeException e) {
+                if (!closed) {
+                    log.warn("Order feed subscriber failed", e);
+                }
+            } finally {
+                subscribers.decrementAndGet();
+                complete();
+            }
+        }
+
+        /**
+         * Sends the stored orders after {@code orderId} page by page, then continues with the buffered events that
+         * were published since the first page was read.
+         */
+        private void replay(OutputStream out, long orderId) throws IOException {
+            final var from = published + 1;
+            var last = orderId;
+            while (!closed) {
+                final var page = orderService.searchPrimary(OrderFilter.NONE, last, REPLAY_PAGE_SIZE, OrderListItem.class);
+                for (final var item : page) {
+                    out.write(frame(item));
+                    last = item.orderId();
+                }
+                out.flush();
+                if (page.size() < REPLAY_PAGE_SIZE) {
+                    break;
+                }
+            }
+
+            cursor = from;
+            replayEnd = published + 1;
+            lastSent = Math.max(lastSent, last);
+        }
+
+        private long latestOrderId() {
+            final var latest = orderService.searchPrimary(LATEST, null, 1, OrderListItem.class);
+            return latest.isEmpty() ? 0 : latest.get(0).orderId();
+        }
+
+        private void complete() {
+            closed = true;
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // completed by the container already
+            }
+        }
+
+        private void close() {
+            closed = true;
+            final var running = thread;
+            if (running != null) {
+                running.interrupt();
+            }
+        }
+
+        /**
+         * Closes this subscriber and completes the request once its thread stopped writing to the response, which the
+         * container recycles on completion.
+         */
+        private void stop() {
+            close();
+            final var running = thread;
+            try {
+                if (running != null) {
+                    running.join(STOP_TIMEOUT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            stop();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            stop();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
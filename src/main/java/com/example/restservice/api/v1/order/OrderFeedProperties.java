@@ -0,0 +1,19 @@
+package com.example.restservice.api.v1.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.feed")
+public record OrderFeedProperties(
+    @DefaultValue("8192")
+    int bufferSize,
+
+    @DefaultValue("15s")
+    Duration heartbeat,
+
+    @DefaultValue("30m")
+    Duration timeout
+) {
+}
@@ -1,5 +1,7 @@
 package com.example.restservice.api.v1.order;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+@JsonSerialize(using = OrderItemSerializer.class)
 public record OrderItem(Long orderId, Long productId, String email, String firstName, String lastName) {
 }
-
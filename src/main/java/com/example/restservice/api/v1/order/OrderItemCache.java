@@ -0,0 +1,101 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.customer.CustomerRenamedEvent;
+import com.example.restservice.model.order.OrderCreatedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of {@link OrderItem}s by order id, evicting by size (W-TinyLFU) and age. The orders of a renamed
+ * customer are evicted, they are read again with the new name.
+ * <p>
+ * With {@code orders.cache.serialized} the items are kept as JSON byte arrays, one object per entry instead of the item
+ * and its strings, so a large cache leaves the garbage collector fewer objects to trace, at the cost of decoding every
+ * hit.
+ */
+@Component
+@Profile("!reactive")
+class OrderItemCache {
+    private final Cache<Long, Object> cache;
+    private final boolean serialized;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    @Autowired
+    OrderItemCache(
+        final OrderCacheProperties properties,
+        final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.expireAfterWrite())
+            .recordStats()
+            .build();
+        this.serialized = properties.serialized();
+        this.reader = objectMapper.readerFor(OrderItem.class);
+        this.writer = objectMapper.writerFor(OrderItem.class);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders.items");
+    }
+
+    /**
+     * Returns the cached item or loads, caches and returns it. Exceptions of {@code loader} are passed on and nothing
+     * is cached.
+     */
+    OrderItem get(Long orderId, Function<Long, OrderItem> loader) {
+        return decode(cache.get(orderId, id -> encode(loader.apply(id))));
+    }
+
+    void put(OrderItem item) {
+        cache.put(item.orderId(), encode(item));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrderCreated(OrderCreatedEvent event) {
+        put(OrderResource.toDto(event.order()));
+    }
+
+    /**
+     * Scans the whole cache, which is not indexed by customer: renames are rare next to reads.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCustomerRenamed(CustomerRenamedEvent event) {
+        final var email = event.customer().getEmail();
+        cache.asMap().values().removeIf(value -> email.equals(decode(value).email()));
+    }
+
+    private Object encode(OrderItem item) {
+        if (!serialized) {
+            return item;
+        }
+        try {
+            return writer.writeValueAsBytes(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OrderItem decode(Object value) {
+        if (!(value instanceof byte[] json)) {
+            return (OrderItem) value;
+        }
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.restservice.api.v1.order;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link OrderItem} field by field instead of through its record accessors reflectively.
+ */
+class OrderItemSerializer extends StdSerializer<OrderItem> {
+
+    OrderItemSerializer() {
+        super(OrderItem.class);
+    }
+
+    @Override
+    public void serialize(OrderItem item, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        OrderRowWriter.write(generator, item.orderId(), item.productId(), item.email(), item.firstName(),
+            item.lastName());
+    }
+}
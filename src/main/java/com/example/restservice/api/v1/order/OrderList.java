@@ -1,6 +1,16 @@
 package com.example.restservice.api.v1.order;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
-public record OrderList(List<OrderListItem> orders) {
+public record OrderList(
+    List<OrderListItem> orders,
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long nextCursor
+) {
+    public OrderList(List<OrderListItem> orders) {
+        this(orders, null);
+    }
 }
@@ -1,4 +1,7 @@
 package com.example.restservice.api.v1.order;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+@JsonSerialize(using = OrderListItemSerializer.class)
 public record OrderListItem(Long orderId, Long productId, String email, String firstName, String lastName) {
 }
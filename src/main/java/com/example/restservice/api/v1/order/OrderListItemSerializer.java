@@ -0,0 +1,24 @@
+package com.example.restservice.api.v1.order;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link OrderListItem} field by field instead of through its record accessors reflectively.
+ */
+class OrderListItemSerializer extends StdSerializer<OrderListItem> {
+
+    OrderListItemSerializer() {
+        super(OrderListItem.class);
+    }
+
+    @Override
+    public void serialize(OrderListItem item, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+        OrderRowWriter.write(generator, item.orderId(), item.productId(), item.email(), item.firstName(),
+            item.lastName());
+    }
+}
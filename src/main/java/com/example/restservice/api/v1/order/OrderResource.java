@@ -1,66 +1,322 @@
 package com.example.restservice.api.v1.order;
 
 import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderCreationResult;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderIngestService;
+import com.example.restservice.model.order.OrderKey;
 import com.example.restservice.model.order.OrderService;
+import com.example.restservice.model.order.OrderVersion;
 import com.example.restservice.model.order.exceptions.InvalidOrderException;
 import com.example.restservice.model.order.exceptions.OrderNotFoundException;
+import com.example.restservice.model.order.exceptions.OrderQueueFullException;
 import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import com.example.restservice.model.user.exceptions.UserProviderUnavailableException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
+@Profile("!reactive")
+// listings are streamed and items cached with Jackson directly, outside the converters whose types are found at build time
+@RegisterReflectionForBinding({OrderItem.class, OrderList.class, OrderListItem.class, OrderSearchRequest.class,
+    CreateOrderRequest.class, CreateOrderResult.class, CreateOrderResults.class})
 public class OrderResource {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+    static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final OrderItemCache orderItemCache;
+    private final OrderFeed orderFeed;
+    private final Optional<OrderIngestService> orderIngestService;
 
     @Autowired
-    OrderResource(final OrderService orderService) {
+    OrderResource(
+        final OrderService orderService,
+        final ObjectMapper objectMapper,
+        final SmileMessageConverter smileMessageConverter,
+        final OrderItemCache orderItemCache,
+        final OrderFeed orderFeed,
+        final Optional<OrderIngestService> orderIngestService) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.smileMapper = smileMessageConverter.getObjectMapper();
+        this.orderItemCache = orderItemCache;
+        this.orderFeed = orderFeed;
+        this.orderIngestService = orderIngestService;
     }
 
+    /**
+     * Answers 304 when {@code If-None-Match} holds the ETag of the order, which is derived from its fields. Orders
+     * missing from the cache are loaded from the primary, a replica could hand the cache a name from before a rename.
+     */
     @GetMapping("/order/{id}")
-    public ResponseEntity<OrderItem> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderItem> getOrderById(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        WebRequest request,
+        HttpServletResponse response) {
+        final OrderItem item;
         try {
-            return ResponseEntity.ok().body(toDto(orderService.getById(id)));
+            item = orderItemCache.get(id, orderId -> orderService.getByIdPrimary(orderId, OrderItem.class));
         } catch (OrderNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
+
+        final var smile = acceptsSmile(accept);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (request.checkNotModified(etag(item, smile))) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(smile ? SMILE : MediaType.APPLICATION_JSON).body(item);
+    }
+
+    /**
+     * Answers 304, without reading the page, when {@code If-None-Match} holds the ETag of the orders the page is
+     * read from.
+     */
+    @GetMapping(value = "/order", params = "limit")
+    public void listOrders(
+        @RequestParam int limit,
+        @RequestParam(required = false) Long after,
+        OrderSearchRequest search,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        WebRequest request,
+        HttpServletResponse response) throws IOException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+
+        final var filter = toFilter(search);
+        final var smile = acceptsSmile(accept);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        final var version = orderService.version(filter, after);
+        if (request.checkNotModified(etag(version, smile))) {
+            return;
+        }
+        writeOrderList(response, smile, limit, rows -> orderService.search(filter, after, limit, version, rows));
     }
 
+    /**
+     * Streams JSON, or Smile when {@code Accept} names {@code application/x-jackson-smile}. Answers 304 like
+     * {@link #listOrders}.
+     */
     @GetMapping("/order")
-    public ResponseEntity<OrderList> listOrders() {
-        return ResponseEntity.ok().body(toDto(orderService.getAll()));
+    public void streamOrders(
+        @RequestParam(required = false) Long after,
+        OrderSearchRequest search,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        WebRequest request,
+        HttpServletResponse response) throws IOException {
+        final var filter = toFilter(search);
+        final var smile = acceptsSmile(accept);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        final var version = orderService.version(filter, after);
+        if (request.checkNotModified(etag(version, smile))) {
+            return;
+        }
+        writeOrderList(response, smile, 0, rows -> orderService.forEach(filter, after, version, rows));
+    }
+
+    private void writeOrderList(HttpServletResponse response, boolean smile, int limit, Consumer<OrderRowWriter> read)
+        throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(smile ? SMILE_VALUE : MediaType.APPLICATION_JSON_VALUE);
+
+        final var mapper = smile ? smileMapper : objectMapper;
+        try (var generator = mapper.createGenerator(response.getOutputStream())) {
+            // a failure half way must not be closed into a well-formed, silently truncated list
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            writeOrderList(generator, limit, read);
+        }
+    }
+
+    /**
+     * Writes an {@link OrderList} of the rows {@code read} hands to its writer as they are read, without an object per
+     * order; a page of {@code limit} orders is followed by its next cursor.
+     */
+    static void writeOrderList(JsonGenerator generator, int limit, Consumer<OrderRowWriter> read) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("orders");
+        final var rows = new OrderRowWriter(generator);
+        read.accept(rows);
+        generator.writeEndArray();
+        if (limit > 0 && rows.rows() == limit) {
+            generator.writeNumberField("nextCursor", rows.lastOrderId());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Server-sent events of the orders committed from now on, each with its order id as event id. A client that
+     * reconnects with {@code Last-Event-ID}, or passes {@code after}, is first sent the orders stored after that id.
+     */
+    @GetMapping(value = "/order/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamNewOrders(
+        @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+        @RequestParam(required = false) Long after,
+        HttpServletRequest request,
+        HttpServletResponse response) {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        orderFeed.subscribe(request.startAsync(), lastEventId != null ? lastEventId : after);
     }
 
+    /**
+     * Answers 202 instead of 200 when orders are ingested write-behind: the order is queued, not yet readable.
+     */
     @PostMapping("/order")
     public ResponseEntity<Long> createOrder(@RequestBody CreateOrderRequest createOrderRequest) {
         try {
+            if (orderIngestService.isPresent()) {
+                final var acceptedOrder = orderIngestService.get()
+                    .accept(createOrderRequest.productId(), createOrderRequest.email());
+
+                return ResponseEntity.accepted().body(acceptedOrder.getOrderId());
+            }
+
             final var savedOrder = orderService.save(createOrderRequest.productId(), createOrderRequest.email());
 
             return ResponseEntity.ok().body(savedOrder.getOrderId());
         } catch (UserNotFoundException | InvalidOrderException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (UserProviderUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (OrderQueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    @PostMapping("/order/batch")
+    public ResponseEntity<CreateOrderResults> createOrders(@RequestBody List<CreateOrderRequest> createOrderRequests) {
+        if (createOrderRequests.isEmpty() || createOrderRequests.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, String.format("Batch must contain between 1 and %d orders", MAX_BATCH_SIZE));
+        }
+
+        try {
+            final var results = orderService.saveAll(createOrderRequests.stream()
+                .map(request -> new OrderKey(request.email(), request.productId()))
+                .toList());
+
+            return ResponseEntity.ok().body(new CreateOrderResults(results.stream().map(OrderResource::toDto).toList()));
+        } catch (UserProviderUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    static boolean acceptsSmile(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(SMILE) && mediaType.getQualityValue() > 0);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    static OrderFilter toFilter(OrderSearchRequest search) {
+        final Sort.Direction direction;
+        if (search.sort() == null || search.sort().equalsIgnoreCase("asc")) {
+            direction = Sort.Direction.ASC;
+        } else if (search.sort().equalsIgnoreCase("desc")) {
+            direction = Sort.Direction.DESC;
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sort must be `asc` or `desc`");
+        }
+
+        var minOrderId = search.minOrderId();
+        if (search.since() != null && (minOrderId == null || minOrderId <= search.since())) {
+            minOrderId = search.since() + 1;
+        }
+
+        return new OrderFilter(search.email(), search.productId(), minOrderId, search.maxOrderId(), direction);
+    }
+
+    /**
+     * Strong ETag of a listing: the orders it is read from are only ever added to and their names only change with a
+     * new customer name version, so these identify the listing without reading, let alone hashing, it.
+     */
+    static String etag(OrderVersion version, boolean smile) {
+        return etag(Objects.requireNonNullElse(version.maxOrderId(), 0L) + "-" + version.count() + "-"
+            + Objects.requireNonNullElse(version.nameVersion(), 0L), smile);
+    }
+
+    static String etag(OrderItem item, boolean smile) {
+        var hash = Objects.hashCode(item.productId());
+        hash = 31 * hash + Objects.hashCode(item.email());
+        hash = 31 * hash + Objects.hashCode(item.firstName());
+        hash = 31 * hash + Objects.hashCode(item.lastName());
+        return etag(item.orderId() + "-" + Integer.toHexString(hash), smile);
+    }
+
+    private static String etag(String version, boolean smile) {
+        return '"' + version + (smile ? "-smile" : "") + '"';
+    }
+
+    static CreateOrderResult toDto(OrderCreationResult result) {
+        if (result.isCreated()) {
+            return new CreateOrderResult(HttpStatus.OK.value(), result.order().getOrderId(), null);
+        }
+        if (result.error() instanceof UserNotFoundException || result.error() instanceof InvalidOrderException) {
+            return new CreateOrderResult(HttpStatus.BAD_REQUEST.value(), null, result.error().getMessage());
         }
+        return new CreateOrderResult(HttpStatus.INTERNAL_SERVER_ERROR.value(), null, result.error().getMessage());
     }
 
-    private OrderList toDto(List<Order> orders) {
-        return new OrderList(orders.stream().map(order ->
-            new OrderListItem(
-                order.getOrderId(),
-                order.getProductId(),
-                order.getEmail(),
-                order.getFirstName(),
-                order.getLastName()
-            )
-        ).toList());
+    static OrderList toDto(List<Order> orders, int limit) {
+        return toOrderList(orders.stream().map(OrderResource::toListItem).toList(), limit);
+    }
+
+    static OrderList toOrderList(List<OrderListItem> items, int limit) {
+        final var nextCursor = items.size() == limit ? items.get(items.size() - 1).orderId() : null;
+
+        return new OrderList(items, nextCursor);
+    }
+
+    static OrderListItem toListItem(Order order) {
+        return new OrderListItem(
+            order.getOrderId(),
+            order.getProductId(),
+            order.getEmail(),
+            order.getFirstName(),
+            order.getLastName()
+        );
     }
 
-    private OrderItem toDto(Order order) {
+    static OrderItem toDto(Order order) {
         return new OrderItem(
             order.getOrderId(),
             order.getProductId(),
@@ -0,0 +1,69 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.order.OrderRowHandler;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes orders from their columns as the elements of a JSON or Smile array, in the form of an {@link OrderItem} or
+ * {@link OrderListItem}, and keeps count of them and of the last order id for the next cursor. The field names are
+ * encoded once, so a row allocates nothing beyond the generator's own buffers.
+ */
+final class OrderRowWriter implements OrderRowHandler {
+    private static final SerializableString ORDER_ID = new SerializedString("orderId");
+    private static final SerializableString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+
+    private final JsonGenerator generator;
+    private int rows;
+    private long lastOrderId;
+
+    OrderRowWriter(final JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void row(long orderId, Long productId, String email, String firstName, String lastName) {
+        try {
+            write(generator, orderId, productId, email, firstName, lastName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows++;
+        lastOrderId = orderId;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long lastOrderId() {
+        return lastOrderId;
+    }
+
+    static void write(JsonGenerator generator, long orderId, Long productId, String email, String firstName,
+                      String lastName) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ORDER_ID);
+        generator.writeNumber(orderId);
+        generator.writeFieldName(PRODUCT_ID);
+        if (productId == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(productId);
+        }
+        generator.writeFieldName(EMAIL);
+        generator.writeString(email);
+        generator.writeFieldName(FIRST_NAME);
+        generator.writeString(firstName);
+        generator.writeFieldName(LAST_NAME);
+        generator.writeString(lastName);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.restservice.api.v1.order;
+
+/**
+ * Optional {@code GET /order} query parameters; {@code since} only keeps the orders with a greater id, {@code sort} is
+ * {@code asc} (default) or {@code desc} by order id.
+ */
+record OrderSearchRequest(String email, Long productId, Long minOrderId, Long maxOrderId, Long since, String sort) {
+}
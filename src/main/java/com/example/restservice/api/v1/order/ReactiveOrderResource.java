@@ -0,0 +1,193 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderKey;
+import com.example.restservice.model.order.ReactiveOrderService;
+import com.example.restservice.model.order.exceptions.InvalidOrderException;
+import com.example.restservice.model.order.exceptions.OrderNotFoundException;
+import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import com.example.restservice.model.user.exceptions.UserProviderUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.example.restservice.api.v1.order.OrderResource.MAX_BATCH_SIZE;
+import static com.example.restservice.api.v1.order.OrderResource.MAX_PAGE_SIZE;
+import static com.example.restservice.api.v1.order.OrderResource.SMILE;
+
+/**
+ * The {@link OrderResource} contract on WebFlux, active with the {@code reactive} profile.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveOrderResource {
+
+    private final ReactiveOrderService orderService;
+    private final ObjectWriter listItemWriter;
+
+    @Autowired
+    ReactiveOrderResource(final ReactiveOrderService orderService, final ObjectMapper objectMapper) {
+        this.orderService = orderService;
+        this.listItemWriter = objectMapper.writerFor(OrderListItem.class);
+    }
+
+    /**
+     * Answers 304 when {@code If-None-Match} holds the ETag of the order, and Smile when {@code Accept} names it, as
+     * {@link OrderResource#getOrderById} does.
+     */
+    @GetMapping("/order/{id}")
+    public Mono<ResponseEntity<OrderItem>> getOrderById(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        ServerWebExchange exchange) {
+        final var smile = OrderResource.acceptsSmile(accept);
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return orderService.getById(id)
+            .map(OrderResource::toDto)
+            .filter(item -> !exchange.checkNotModified(OrderResource.etag(item, smile)))
+            .map(item -> ResponseEntity.ok().contentType(smile ? SMILE : MediaType.APPLICATION_JSON).body(item))
+            .onErrorMap(OrderNotFoundException.class, e -> new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage()));
+    }
+
+    /**
+     * Takes the search parameters of {@link OrderResource#listOrders} and answers 304, without reading the page, when
+     * {@code If-None-Match} holds the ETag of the orders the page is read from. Answers Smile like
+     * {@link #getOrderById}.
+     */
+    @GetMapping(value = "/order", params = "limit")
+    public Mono<ResponseEntity<OrderList>> listOrders(
+        @RequestParam int limit,
+        @RequestParam(required = false) Long after,
+        OrderSearchRequest search,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        ServerWebExchange exchange) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE)));
+        }
+
+        final var filter = OrderResource.toFilter(search);
+        final var smile = OrderResource.acceptsSmile(accept);
+        return modified(filter, after, smile, exchange)
+            .flatMap(modified -> orderService.getPage(filter, after, limit).collectList())
+            .map(orders -> ResponseEntity.ok()
+                .contentType(smile ? SMILE : MediaType.APPLICATION_JSON)
+                .body(OrderResource.toDto(orders, limit)));
+    }
+
+    /**
+     * Streams every order matching the search parameters as one {@code OrderListItem} per line. Answers 304 like
+     * {@link #listOrders}.
+     */
+    @GetMapping(value = "/order", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderListItem> streamOrders(
+        @RequestParam(required = false) Long after,
+        OrderSearchRequest search,
+        ServerWebExchange exchange) {
+        final var filter = OrderResource.toFilter(search);
+        return modified(filter, after, false, exchange)
+            .flatMapMany(modified -> orderService.getAll(filter, after))
+            .map(OrderResource::toListItem);
+    }
+
+    /**
+     * Streams every order matching the search parameters in the {@code {"orders": [...]}} envelope of
+     * {@link OrderResource#streamOrders}. Answers 304 like {@link #listOrders}.
+     */
+    @GetMapping(value = "/order", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Void> streamOrderList(
+        @RequestParam(required = false) Long after,
+        OrderSearchRequest search,
+        ServerWebExchange exchange) {
+        final var filter = OrderResource.toFilter(search);
+        final var response = exchange.getResponse();
+
+        return modified(filter, after, false, exchange).flatMap(modified -> {
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            final var items = orderService.getAll(filter, after)
+                .index()
+                .map(item -> buffer(response, (item.getT1() == 0 ? "" : ",") + write(OrderResource.toListItem(item.getT2()))));
+
+            return response.writeWith(Flux.concat(
+                Mono.fromSupplier(() -> buffer(response, "{\"orders\":[")),
+                items,
+                Mono.fromSupplier(() -> buffer(response, "]}"))
+            ));
+        });
+    }
+
+    /**
+     * Full listings are only streamed as JSON here; Smile is answered for pages, with {@code limit}.
+     */
+    @GetMapping(value = "/order", produces = OrderResource.SMILE_VALUE)
+    public Mono<Void> streamSmileOrders() {
+        return Mono.error(new ResponseStatusException(
+            HttpStatus.NOT_ACCEPTABLE, "Orders are only listed in Smile a page at a time, pass `limit`"));
+    }
+
+    /**
+     * Completes empty, with the response set to 304, when {@code If-None-Match} holds the ETag of the orders matching
+     * {@code filter} after {@code after}, and emits {@code true} when they have to be read.
+     */
+    private Mono<Boolean> modified(OrderFilter filter, Long after, boolean smile, ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return orderService.version(filter, after)
+            .map(version -> !exchange.checkNotModified(OrderResource.etag(version, smile)))
+            .filter(Boolean::booleanValue);
+    }
+
+    @PostMapping("/order")
+    public Mono<Long> createOrder(@RequestBody CreateOrderRequest createOrderRequest) {
+        return orderService.save(createOrderRequest.productId(), createOrderRequest.email())
+            .map(Order::getOrderId)
+            .onErrorMap(
+                e -> e instanceof UserNotFoundException || e instanceof InvalidOrderException,
+                e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+            .onErrorMap(UserProviderUnavailableException.class,
+                e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    @PostMapping("/order/batch")
+    public Mono<CreateOrderResults> createOrders(@RequestBody List<CreateOrderRequest> createOrderRequests) {
+        if (createOrderRequests.isEmpty() || createOrderRequests.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, String.format("Batch must contain between 1 and %d orders", MAX_BATCH_SIZE)));
+        }
+
+        return orderService.saveAll(createOrderRequests.stream()
+                .map(request -> new OrderKey(request.email(), request.productId()))
+                .toList())
+            .map(results -> new CreateOrderResults(results.stream().map(OrderResource::toDto).toList()))
+            .onErrorMap(UserProviderUnavailableException.class,
+                e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    private String write(OrderListItem item) {
+        try {
+            return listItemWriter.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataBuffer buffer(ServerHttpResponse response, String json) {
+        return response.bufferFactory().wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
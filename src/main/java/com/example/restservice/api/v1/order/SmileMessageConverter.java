@@ -0,0 +1,26 @@
+package com.example.restservice.api.v1.order;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces Spring's default Smile converter for {@code Accept: application/x-jackson-smile}, with back-references to
+ * string values enabled: an email or name repeated within the last 1024 short strings is written as a one or two byte
+ * reference instead of again.
+ */
+@Component
+@Profile("!reactive")
+class SmileMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    @Autowired
+    SmileMessageConverter(final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        super(objectMapperBuilder
+            .factory(SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+            .build());
+    }
+}
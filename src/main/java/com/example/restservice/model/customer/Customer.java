@@ -0,0 +1,84 @@
+package com.example.restservice.model.customer;
+
+import jakarta.persistence.*;
+import org.springframework.lang.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A user who ordered, stored once and referred to by its orders.
+ */
+@Entity
+@Table(
+    name = "customers",
+    uniqueConstraints = @UniqueConstraint(name = Customer.EMAIL_CONSTRAINT, columnNames = "email")
+)
+public class Customer {
+    static final String EMAIL_CONSTRAINT = "uk_customers_email";
+    static final String ID_SEQUENCE = "customers_seq";
+    static final String NAME_VERSION_SEQUENCE = "customers_name_version_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
+    private Long customerId;
+    @Column(name = "email", nullable = false)
+    private String email;
+    private String firstName;
+    private String lastName;
+    // taken from NAME_VERSION_SEQUENCE by every rename, 0 until the first one
+    @Column(insertable = false, updatable = false)
+    private long nameVersion;
+
+    public Customer(@NonNull final String email, @NonNull final String firstName, @NonNull final String lastName) {
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public Customer(final Long customerId, final String email, final String firstName, final String lastName) {
+        this(email, firstName, lastName);
+        this.customerId = customerId;
+    }
+
+    public Customer() {
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    boolean hasName(String firstName, String lastName) {
+        return Objects.equals(this.firstName, firstName) && Objects.equals(this.lastName, lastName);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Customer customer)) {
+            return false;
+        }
+        return Objects.equals(getCustomerId(), customer.getCustomerId()) && Objects.equals(getEmail(),
+            customer.getEmail()) && Objects.equals(getFirstName(), customer.getFirstName()) && Objects.equals(
+            getLastName(), customer.getLastName());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(getCustomerId()) + Objects.hashCode(getEmail());
+    }
+}
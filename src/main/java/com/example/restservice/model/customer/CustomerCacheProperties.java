@@ -0,0 +1,11 @@
+package com.example.restservice.model.customer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("customers.cache")
+public record CustomerCacheProperties(
+    @DefaultValue("100000")
+    long maximumSize
+) {
+}
@@ -0,0 +1,8 @@
+package com.example.restservice.model.customer;
+
+/**
+ * Published once the name of a customer changed, which changes the name of every order of that customer; listeners
+ * bound to the transaction see it after the commit.
+ */
+public record CustomerRenamedEvent(Customer customer) {
+}
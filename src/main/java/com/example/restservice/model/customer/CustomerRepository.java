@@ -0,0 +1,33 @@
+package com.example.restservice.model.customer;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    Optional<Customer> findByEmail(String email);
+
+    List<Customer> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Renames the customer and gives it the next name version.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update customers set first_name = :firstName, last_name = :lastName, "
+        + "name_version = nextval('" + Customer.NAME_VERSION_SEQUENCE + "') where customer_id = :customerId",
+        nativeQuery = true)
+    void updateName(
+        @Param("customerId") Long customerId,
+        @Param("firstName") String firstName,
+        @Param("lastName") String lastName);
+}
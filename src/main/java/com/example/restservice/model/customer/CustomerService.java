@@ -0,0 +1,132 @@
+package com.example.restservice.model.customer;
+
+import com.example.restservice.model.user.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Finds or creates the {@link Customer} of a {@link User}. Customers are kept in memory by email, so that creating
+ * an order normally does not touch the customers table; a customer whose name changed in the user directory is
+ * updated on its next order. That renames every past order of the customer too: the rename is announced with a
+ * {@link CustomerRenamedEvent} for the caches of orders, and takes a new name version that listings are validated by.
+ * <p>
+ * The cached customers are detached copies, only their id is used when an order refers to them.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerService {
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, Customer> cache;
+
+    @Autowired
+    CustomerService(
+        final CustomerRepository customerRepository,
+        final PlatformTransactionManager transactionManager,
+        final ApplicationEventPublisher eventPublisher,
+        final CustomerCacheProperties properties,
+        final MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers");
+    }
+
+    public Customer getOrCreate(User user) {
+        final var cached = cache.getIfPresent(user.email());
+        if (cached != null && cached.hasName(user.firstName(), user.lastName())) {
+            return cached;
+        }
+
+        final var customer = customerRepository.findByEmail(user.email())
+            .map(existing -> rename(existing, user))
+            .orElseGet(() -> create(user));
+        cache.put(user.email(), customer);
+        return customer;
+    }
+
+    /**
+     * {@link #getOrCreate(User)} for every user, by email, reading and inserting the customers missing from memory in
+     * one statement each.
+     */
+    public Map<String, Customer> getOrCreateAll(Collection<User> users) {
+        final var customers = new HashMap<String, Customer>();
+        final var missing = new HashMap<String, User>();
+        for (final var user : users) {
+            final var cached = cache.getIfPresent(user.email());
+            if (cached != null && cached.hasName(user.firstName(), user.lastName())) {
+                customers.put(user.email(), cached);
+            } else {
+                missing.put(user.email(), user);
+            }
+        }
+        if (missing.isEmpty()) {
+            return customers;
+        }
+
+        for (final var existing : customerRepository.findByEmailIn(missing.keySet())) {
+            final var customer = rename(existing, missing.remove(existing.getEmail()));
+            cache.put(customer.getEmail(), customer);
+            customers.put(customer.getEmail(), customer);
+        }
+        if (missing.isEmpty()) {
+            return customers;
+        }
+
+        try {
+            final var created = transactionTemplate.execute(status -> customerRepository.saveAll(
+                missing.values().stream().map(user -> new Customer(user.email(), user.firstName(), user.lastName())).toList()));
+            Objects.requireNonNull(created).forEach(customer -> {
+                cache.put(customer.getEmail(), detached(customer));
+                customers.put(customer.getEmail(), detached(customer));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // a customer of the batch was created concurrently, find out which one by creating them one at a time
+            missing.values().forEach(user -> customers.put(user.email(), getOrCreate(user)));
+        }
+        return customers;
+    }
+
+    private Customer create(User user) {
+        try {
+            return detached(customerRepository.save(new Customer(user.email(), user.firstName(), user.lastName())));
+        } catch (DataIntegrityViolationException e) {
+            // created concurrently
+            return customerRepository.findByEmail(user.email()).map(existing -> rename(existing, user)).orElseThrow(() -> e);
+        }
+    }
+
+    private Customer rename(Customer customer, User user) {
+        if (customer.hasName(user.firstName(), user.lastName())) {
+            return detached(customer);
+        }
+        customerRepository.updateName(customer.getCustomerId(), user.firstName(), user.lastName());
+        final var renamed = new Customer(customer.getCustomerId(), customer.getEmail(), user.firstName(), user.lastName());
+        eventPublisher.publishEvent(new CustomerRenamedEvent(renamed));
+        return renamed;
+    }
+
+    private static Customer detached(Customer customer) {
+        return new Customer(customer.getCustomerId(), customer.getEmail(), customer.getFirstName(), customer.getLastName());
+    }
+}
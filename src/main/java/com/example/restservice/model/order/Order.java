@@ -1,30 +1,46 @@
 package com.example.restservice.model.order;
 
+import com.example.restservice.model.customer.Customer;
 import jakarta.persistence.*;
 import org.springframework.lang.NonNull;
 
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders")
+@EntityListeners(OrderKeyIndexListener.class)
+@Table(
+    name = "orders",
+    uniqueConstraints = @UniqueConstraint(
+        name = Order.CUSTOMER_PRODUCT_CONSTRAINT,
+        columnNames = {"customer_id", "product_id"}
+    )
+)
 public class Order {
+    static final String CUSTOMER_PRODUCT_CONSTRAINT = "uk_orders_customer_id_product_id";
+    static final String ID_SEQUENCE = "orders_seq";
+    /**
+     * Increment of {@link #ID_SEQUENCE}: every value taken from it reserves the block of ids that ends at that value.
+     */
+    static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long orderId;
+    @Column(name = "product_id")
     private Long productId;
-    private String email;
-    private String firstName;
-    private String lastName;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private Customer customer;
 
-    public Order(
-        @NonNull final Long productId,
-        @NonNull final String email,
-        @NonNull final String firstName,
-        @NonNull final String lastName) {
+    public Order(@NonNull final Long productId, @NonNull final Customer customer) {
         this.productId = productId;
-        this.email = email;
-        this.firstName = firstName;
-        this.lastName = lastName;
+        this.customer = customer;
+    }
+
+    Order(final Long orderId, final Long productId, final Customer customer) {
+        this(productId, customer);
+        this.orderId = orderId;
     }
 
     public Order() {
@@ -38,18 +54,25 @@ public class Order {
         return productId;
     }
 
+    public Customer getCustomer() {
+        return customer;
+    }
+
     public String getEmail() {
-        return email;
+        return customer.getEmail();
     }
 
     public String getFirstName() {
-        return firstName;
+        return customer.getFirstName();
     }
 
     public String getLastName() {
-        return lastName;
+        return customer.getLastName();
     }
 
+    /**
+     * Compares the customer by id only, which does not initialize a lazily loaded customer.
+     */
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -60,12 +83,13 @@ public class Order {
         }
         final Order order = (Order) o;
         return Objects.equals(orderId, order.orderId) && Objects.equals(productId,
-            order.productId) && Objects.equals(email, order.email) && Objects.equals(firstName,
-            order.firstName) && Objects.equals(lastName, order.lastName);
+            order.productId) && Objects.equals(customer.getCustomerId(), order.customer.getCustomerId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(orderId, productId, email, firstName, lastName);
+        var result = Objects.hashCode(orderId);
+        result = 31 * result + Objects.hashCode(productId);
+        return 31 * result + Objects.hashCode(customer.getCustomerId());
     }
 }
@@ -0,0 +1,7 @@
+package com.example.restservice.model.order;
+
+/**
+ * Published once an order is stored; listeners bound to the transaction see it after the commit.
+ */
+public record OrderCreatedEvent(Order order) {
+}
@@ -0,0 +1,16 @@
+package com.example.restservice.model.order;
+
+public record OrderCreationResult(Order order, RuntimeException error) {
+
+    static OrderCreationResult created(Order order) {
+        return new OrderCreationResult(order, null);
+    }
+
+    static OrderCreationResult failed(RuntimeException error) {
+        return new OrderCreationResult(null, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
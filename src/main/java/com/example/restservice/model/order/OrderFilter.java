@@ -0,0 +1,11 @@
+package com.example.restservice.model.order;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Search criteria for orders; {@code null} fields do not filter. Order id bounds are inclusive.
+ */
+public record OrderFilter(String email, Long productId, Long minOrderId, Long maxOrderId, Sort.Direction direction) {
+
+    public static final OrderFilter NONE = new OrderFilter(null, null, null, null, Sort.Direction.ASC);
+}
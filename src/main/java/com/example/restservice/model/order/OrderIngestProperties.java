@@ -0,0 +1,19 @@
+package com.example.restservice.model.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.ingest")
+public record OrderIngestProperties(
+    @DefaultValue("10000")
+    int queueCapacity,
+
+    @DefaultValue("500")
+    int batchSize,
+
+    @DefaultValue("30s")
+    Duration shutdownTimeout
+) {
+}
@@ -0,0 +1,374 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.CustomerService;
+import com.example.restservice.model.order.exceptions.OrderQueueFullException;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind variant of {@link OrderService#save(Long, String)}, enabled with {@code orders.ingest.enabled=true}.
+ * <p>
+ * {@link #accept(Long, String)} takes a place on a bounded queue, checks the user and the duplicate constraint, takes
+ * an id from a block reserved on the order sequence and puts the order in its place. A single writer drains the queue
+ * in multi-row inserts of up to {@code batchSize} orders, so an accepted order can be read only once its batch is
+ * written. A full queue rejects new orders instead of blocking the caller, before their customer is created or an id
+ * is taken. On shutdown, after the web server has stopped taking requests, the queue is flushed for at most
+ * {@code shutdownTimeout}. A batch that fails for any other reason than the database being unavailable is dropped and
+ * counted, the writer carries on with the next one.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "orders.ingest.enabled", havingValue = "true")
+public class OrderIngestService implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestService.class);
+
+    private static final String INSERT = "insert into orders (order_id, product_id, customer_id) values ";
+    private static final String ROW = "(?, ?, ?)";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final OrderRepository orderRepository;
+    private final ReqresUserProvider userProvider;
+    private final CustomerService customerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderKeyIndex orderKeyIndex;
+    private final OrderIngestProperties properties;
+
+    private final BlockingQueue<Order> queue;
+    // places on the queue, taken by accept before it writes anything and given back as the writer takes orders off it
+    private final Semaphore places;
+    // keys of the queued orders, so that a duplicate is rejected before it reaches the database
+    private final Set<OrderKey> pending = ConcurrentHashMap.newKeySet();
+    // a lock rather than synchronized: reserving a block waits on the database, which must not pin a virtual thread.
+    // Callers hold no connection while waiting for it (accept runs outside any transaction and open-in-view is off),
+    // so the holder can always take one from the pool to reserve the block
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId = 1;
+    private long lastId;
+
+    private volatile Thread writer;
+    private volatile boolean closed;
+
+    private final Timer userLookup;
+    private final Timer existingCheck;
+    private final Timer customerLookup;
+    private final Timer successfulFlushes;
+    private final Timer failedFlushes;
+    private final DistributionSummary batchSize;
+    private final Counter createdOrders;
+    private final Counter duplicateOrders;
+    private final Counter unknownUsers;
+    private final Counter queueFull;
+    private final Counter lostOrders;
+    private final Counter writeFailures;
+    private final Counter listenerFailures;
+
+    @Autowired
+    OrderIngestService(
+        final OrderRepository orderRepository,
+        final ReqresUserProvider userProvider,
+        final CustomerService customerService,
+        final JdbcTemplate jdbcTemplate,
+        final ApplicationEventPublisher eventPublisher,
+        final OrderKeyIndex orderKeyIndex,
+        final OrderIngestProperties properties,
+        final MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.userProvider = userProvider;
+        this.customerService = customerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.orderKeyIndex = orderKeyIndex;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.places = new Semaphore(properties.queueCapacity());
+
+        this.userLookup = meterRegistry.timer("orders.ingest", "stage", "user_lookup");
+        this.existingCheck = meterRegistry.timer("orders.ingest", "stage", "existing_check");
+        this.customerLookup = meterRegistry.timer("orders.ingest", "stage", "customer_lookup");
+        this.successfulFlushes = meterRegistry.timer("orders.ingest.flush", "outcome", "success");
+        this.failedFlushes = meterRegistry.timer("orders.ingest.flush", "outcome", "failure");
+        this.batchSize = meterRegistry.summary("orders.ingest.batch.size");
+        this.createdOrders = meterRegistry.counter("orders.created");
+        this.duplicateOrders = meterRegistry.counter("orders.rejected", "reason", "duplicate");
+        this.unknownUsers = meterRegistry.counter("orders.rejected", "reason", "user_not_found");
+        this.queueFull = meterRegistry.counter("orders.rejected", "reason", "queue_full");
+        this.lostOrders = meterRegistry.counter("orders.ingest.lost");
+        this.writeFailures = meterRegistry.counter("orders.ingest.failures", "stage", "write");
+        this.listenerFailures = meterRegistry.counter("orders.ingest.failures", "stage", "listener");
+        Gauge.builder("orders.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Queues the order for writing and returns it with its id.
+     *
+     * @throws OrderQueueFullException when the queue is full or closed; nothing was queued and the order may be retried
+     */
+    public Order accept(Long productId, String email) {
+        if (closed) {
+            queueFull.increment();
+            throw new OrderQueueFullException("Orders are not accepted while the service shuts down");
+        }
+
+        if (!places.tryAcquire()) {
+            queueFull.increment();
+            throw new OrderQueueFullException(
+                String.format("Order queue is full (%d orders), retry later", properties.queueCapacity()));
+        }
+
+        var queued = false;
+        try {
+            final var order = queue(productId, email);
+            queued = true;
+            return order;
+        } finally {
+            if (!queued) {
+                places.release();
+            }
+        }
+    }
+
+    /**
+     * The checks and writes of {@link #accept} once it holds a place on the queue for the order.
+     */
+    private Order queue(Long productId, String email) {
+        var start = System.nanoTime();
+        final var user = userProvider.getUserByEmail(email);
+        start = record(userLookup, start);
+        if (user.isEmpty()) {
+            unknownUsers.increment();
+            throw new UserNotFoundException(email);
+        }
+
+        final var key = new OrderKey(user.get().email(), productId);
+        if (!pending.add(key)) {
+            duplicateOrders.increment();
+            throw OrderService.alreadyOrdered(productId, key.email());
+        }
+
+        var queued = false;
+        try {
+            final var exists = orderKeyIndex.isReady()
+                ? orderKeyIndex.contains(key)
+                : orderRepository.existsByEmailAndProductId(key.email(), productId);
+            start = record(existingCheck, start);
+            if (exists) {
+                duplicateOrders.increment();
+                throw OrderService.alreadyOrdered(productId, key.email());
+            }
+
+            final var customer = customerService.getOrCreate(user.get());
+            record(customerLookup, start);
+
+            final var order = new Order(nextId(), productId, customer);
+            queue.add(order);
+            queued = true;
+            return order;
+        } finally {
+            if (!queued) {
+                pending.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        closed = false;
+        final var thread = new Thread(this::drain, "order-writer");
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        closed = true;
+        final var thread = writer;
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            thread.join(properties.shutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    /**
+     * Started before and stopped after the web server, so that no order is accepted once the queue has been flushed.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        final var batch = new ArrayList<Order>(properties.batchSize());
+        try {
+            while (true) {
+                final var first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1);
+                places.release(batch.size());
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    writeFailures.increment();
+                    lostOrders.increment(batch.size());
+                    batch.forEach(order -> pending.remove(new OrderKey(order.getEmail(), order.getProductId())));
+                    log.error("Dropped {} accepted orders that could not be written", batch.size(), e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            final var lost = batch.size() + queue.size();
+            lostOrders.increment(lost);
+            log.error("Shutdown timed out, {} accepted orders were not written", lost);
+        }
+    }
+
+    /**
+     * Writes the batch in one statement, retrying until it succeeds or the writer is interrupted.
+     */
+    private void write(List<Order> batch) throws InterruptedException {
+        while (true) {
+            final var start = System.nanoTime();
+            try {
+                jdbcTemplate.update(insertSql(batch.size()), insertArgs(batch));
+                record(successfulFlushes, start);
+                batchSize.record(batch.size());
+                batch.forEach(this::written);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                record(failedFlushes, start);
+                // an order of the batch was created concurrently, find out which one by inserting them one at a time
+                for (final var order : batch) {
+                    writeOne(order);
+                }
+                return;
+            } catch (DataAccessException e) {
+                record(failedFlushes, start);
+                log.warn("Failed to write {} orders, retrying in {} ms", batch.size(), RETRY_DELAY_MILLIS, e);
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void writeOne(Order order) throws InterruptedException {
+        while (true) {
+            try {
+                jdbcTemplate.update(insertSql(1), insertArgs(List.of(order)));
+                batchSize.record(1);
+                written(order);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                final var key = new OrderKey(order.getEmail(), order.getProductId());
+                duplicateOrders.increment();
+                orderKeyIndex.stale(key);
+                pending.remove(key);
+                log.warn("Dropped accepted order {} of product `{}` by customer `{}`: {}",
+                    order.getOrderId(), order.getProductId(), order.getEmail(), e.getMostSpecificCause().getMessage());
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Failed to write order {}, retrying in {} ms", order.getOrderId(), RETRY_DELAY_MILLIS, e);
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void written(Order order) {
+        pending.remove(new OrderKey(order.getEmail(), order.getProductId()));
+        createdOrders.increment();
+        try {
+            eventPublisher.publishEvent(new OrderCreatedEvent(order));
+        } catch (RuntimeException e) {
+            listenerFailures.increment();
+            log.error("Order {} was written but a listener of its creation failed", order.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Hands out the ids of the block ending at the last value taken from the sequence, as Hibernate's pooled
+     * optimizer does for {@link Order}, so that ids never collide with orders saved through {@link OrderService}.
+     */
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId > lastId) {
+                lastId = orderRepository.reserveIdBlock();
+                nextId = Math.max(1, lastId - Order.ID_BLOCK_SIZE + 1);
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private static String insertSql(int rows) {
+        final var sql = new StringBuilder(INSERT.length() + rows * (ROW.length() + 2)).append(INSERT).append(ROW);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(ROW);
+        }
+        return sql.toString();
+    }
+
+    private static Object[] insertArgs(List<Order> orders) {
+        final var args = new Object[orders.size() * 3];
+        var i = 0;
+        for (final var order : orders) {
+            args[i++] = order.getOrderId();
+            args[i++] = order.getProductId();
+            args[i++] = order.getCustomer().getCustomerId();
+        }
+        return args;
+    }
+
+    private static long record(Timer timer, long start) {
+        final var now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+}
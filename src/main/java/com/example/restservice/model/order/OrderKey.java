@@ -0,0 +1,4 @@
+package com.example.restservice.model.order;
+
+public record OrderKey(String email, Long productId) {
+}
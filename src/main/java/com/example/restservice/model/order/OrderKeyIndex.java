@@ -0,0 +1,278 @@
+package com.example.restservice.model.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Exact in-memory set of the (email, product id) pairs in the orders table, so that creating an order neither has to
+ * ask the database whether it exists nor has to fail an insert to find out.
+ * <p>
+ * Emails and product ids are interned to ints and every pair is packed into one long of an open-addressing table,
+ * about 16 bytes per order at the maximum load factor plus one entry per distinct email and product. Being exact, a
+ * pair that is found was ordered: there are no false positives. The index is loaded from the table once the
+ * application is ready and is not {@link #isReady() ready} before; pairs are added after their order is committed and
+ * removed when an {@link Order} entity is removed. Orders inserted by another instance, or deleted without removing
+ * the entity, are not seen: such a stale pair is reported by {@link #stale(OrderKey)} when the unique constraint
+ * catches it.
+ * <p>
+ * A pair without an email or a product is never indexed and never found: the unique constraint does not apply to it
+ * either, since nulls are distinct, so it is left to the database as a whole.
+ */
+@Component
+@Profile("!reactive")
+public class OrderKeyIndex {
+    private static final Logger log = LoggerFactory.getLogger(OrderKeyIndex.class);
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    // estimated heap per interned value: map node, boxed key and value, and for emails the string itself
+    private static final long EMAIL_ENTRY_BYTES = 88;
+    private static final long PRODUCT_ENTRY_BYTES = 64;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final ConcurrentMap<String, Integer> emails = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> products = new ConcurrentHashMap<>();
+    private final AtomicInteger nextEmail = new AtomicInteger(1);
+    private final AtomicInteger nextProduct = new AtomicInteger();
+    private final AtomicLong internedBytes = new AtomicLong();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 0 marks a free slot, which no packed pair is since email ids start at 1
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+    private volatile boolean ready;
+
+    private final Counter present;
+    private final Counter absent;
+    private final Counter stale;
+
+    @Autowired
+    OrderKeyIndex(
+        final OrderRepository orderRepository,
+        final PlatformTransactionManager transactionManager,
+        final OrderKeyIndexProperties properties,
+        final MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = properties.enabled();
+
+        this.present = meterRegistry.counter("orders.index.lookups", "result", "present");
+        this.absent = meterRegistry.counter("orders.index.lookups", "result", "absent");
+        this.stale = meterRegistry.counter("orders.index.stale");
+        Gauge.builder("orders.index.size", this, OrderKeyIndex::size).register(meterRegistry);
+        Gauge.builder("orders.index.memory", this, OrderKeyIndex::estimatedBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Whether the index holds every pair of the table; before, {@link #contains(OrderKey)} must not be relied on.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(OrderKey key) {
+        if (!indexable(key)) {
+            return false;
+        }
+
+        final var email = emails.get(key.email());
+        final var product = products.get(key.productId());
+        if (email == null || product == null) {
+            absent.increment();
+            return false;
+        }
+
+        final var packed = pack(email, product);
+        lock.readLock().lock();
+        try {
+            final var found = table[find(table, packed)] == packed;
+            (found ? present : absent).increment();
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that {@code key} was found to exist after the index said it does not, and adds it.
+     */
+    public void stale(OrderKey key) {
+        if (ready) {
+            stale.increment();
+            add(key);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        if (!enabled) {
+            return;
+        }
+
+        final var start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var keys = orderRepository.streamKeys()) {
+                    keys.forEach(this::add);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to load the order index, duplicates are checked in the database", e);
+            return;
+        }
+        ready = true;
+        log.info("Indexed {} orders in {} ms, about {} KB",
+            size(), (System.nanoTime() - start) / 1_000_000, estimatedBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrderCreated(OrderCreatedEvent event) {
+        if (enabled) {
+            add(new OrderKey(event.order().getEmail(), event.order().getProductId()));
+        }
+    }
+
+    void add(OrderKey key) {
+        if (!indexable(key)) {
+            return;
+        }
+
+        final var packed = pack(intern(emails, key.email(), nextEmail, EMAIL_ENTRY_BYTES + key.email().length()),
+            intern(products, key.productId(), nextProduct, PRODUCT_ENTRY_BYTES));
+        lock.writeLock().lock();
+        try {
+            final var slot = find(table, packed);
+            if (table[slot] == packed) {
+                return;
+            }
+            table[slot] = packed;
+            if (++size > table.length / 2) {
+                resize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(OrderKey key) {
+        if (!indexable(key)) {
+            return;
+        }
+
+        final var email = emails.get(key.email());
+        final var product = products.get(key.productId());
+        if (email == null || product == null) {
+            return;
+        }
+
+        final var packed = pack(email, product);
+        lock.writeLock().lock();
+        try {
+            var slot = find(table, packed);
+            if (table[slot] != packed) {
+                return;
+            }
+            size--;
+            // backward shift: move up every following entry of the probe run that may no longer be reachable
+            final var mask = table.length - 1;
+            for (var next = (slot + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+                final var home = home(table[next], mask);
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    table[slot] = table[next];
+                    slot = next;
+                }
+            }
+            table[slot] = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return 16L + 8L * table.length + internedBytes.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <K> int intern(ConcurrentMap<K, Integer> ids, K value, AtomicInteger next, long bytes) {
+        final var id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(value, v -> {
+            internedBytes.addAndGet(bytes);
+            return next.getAndIncrement();
+        });
+    }
+
+    private void resize() {
+        final var resized = new long[table.length * 2];
+        for (final var packed : table) {
+            if (packed != 0) {
+                resized[find(resized, packed)] = packed;
+            }
+        }
+        table = resized;
+    }
+
+    /**
+     * Slot holding {@code packed}, or the free slot where it belongs.
+     */
+    private static int find(long[] table, long packed) {
+        final var mask = table.length - 1;
+        var slot = home(packed, mask);
+        while (table[slot] != 0 && table[slot] != packed) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long packed, int mask) {
+        // murmur3 finalizer, so that consecutive ids spread over the table
+        var hash = packed;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private static boolean indexable(OrderKey key) {
+        return key.email() != null && key.productId() != null;
+    }
+
+    private static long pack(int email, int product) {
+        return ((long) email << 32) | (product & 0xffffffffL);
+    }
+}
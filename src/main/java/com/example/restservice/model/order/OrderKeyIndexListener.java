@@ -0,0 +1,23 @@
+package com.example.restservice.model.order;
+
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Removes the pair of a removed {@link Order} from the {@link OrderKeyIndex}. Created by Hibernate through Spring's
+ * bean container; removing before the commit is safe, a rolled back removal only costs a database check.
+ */
+class OrderKeyIndexListener {
+    private final ObjectProvider<OrderKeyIndex> orderKeyIndex;
+
+    @Autowired
+    OrderKeyIndexListener(final ObjectProvider<OrderKeyIndex> orderKeyIndex) {
+        this.orderKeyIndex = orderKeyIndex;
+    }
+
+    @PostRemove
+    void removed(Order order) {
+        orderKeyIndex.ifAvailable(index -> index.remove(new OrderKey(order.getEmail(), order.getProductId())));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.restservice.model.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("orders.index")
+public record OrderKeyIndexProperties(
+    @DefaultValue("true")
+    boolean enabled
+) {
+}
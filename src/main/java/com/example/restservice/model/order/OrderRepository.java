@@ -1,9 +1,53 @@
 package com.example.restservice.model.order;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository
+    extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderSearchRepository {
+
+    // entities are read with their customer, which is lazy otherwise
+    @Override
+    @EntityGraph(attributePaths = "customer")
+    Optional<Order> findById(Long orderId);
+
+    @Override
+    @EntityGraph(attributePaths = "customer")
+    List<Order> findAll();
+
+    @EntityGraph(attributePaths = "customer")
+    List<Order> findByOrderIdGreaterThanOrderByOrderIdAsc(Long orderId, Pageable pageable);
+
+    @Query("select new com.example.restservice.model.order.OrderKey(c.email, o.productId) from Order o join o.customer c")
+    Stream<OrderKey> streamKeys();
+
+    @Query("select case when count(o) > 0 then true else false end from Order o "
+        + "where o.customer.email = :email and o.productId = :productId")
+    boolean existsByEmailAndProductId(@Param("email") String email, @Param("productId") Long productId);
+
+    /**
+     * Reserves the next block of {@link Order#ID_BLOCK_SIZE} ids and returns the last id of the block.
+     */
+    @Transactional
+    @Query(value = "select nextval('" + Order.ID_SEQUENCE + "')", nativeQuery = true)
+    long reserveIdBlock();
+
+    /**
+     * Over-fetches: every existing combination of the given emails and product ids is returned.
+     */
+    @Query("select new com.example.restservice.model.order.OrderKey(c.email, o.productId) from Order o join o.customer c "
+        + "where c.email in :emails and o.productId in :productIds")
+    List<OrderKey> findKeys(@Param("emails") Collection<String> emails, @Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,11 @@
+package com.example.restservice.model.order;
+
+/**
+ * Receives the orders of a listing one row at a time, as the columns read from the database; an order may have no
+ * product.
+ */
+@FunctionalInterface
+public interface OrderRowHandler {
+
+    void row(long orderId, Long productId, String email, String firstName, String lastName);
+}
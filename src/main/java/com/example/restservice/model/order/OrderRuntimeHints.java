@@ -0,0 +1,25 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.Customer;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection a native image needs beyond what is found at build time: Hibernate reads and writes the entities'
+ * fields and instantiates {@link OrderKey} and {@link OrderVersion} from the {@code select new} queries of
+ * {@link OrderRepository}.
+ */
+class OrderRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+            .registerType(Order.class, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS)
+            .registerType(Customer.class, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS)
+            .registerType(OrderKey.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+            .registerType(OrderVersion.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.restservice.model.order;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries that read orders joined with their customer straight into {@code type}, a record or class with an
+ * {@code (orderId, productId, email, firstName, lastName)} constructor, without loading entities.
+ */
+public interface OrderSearchRepository {
+
+    <T> Optional<T> findByOrderId(Long orderId, Class<T> type);
+
+    <T> List<T> search(Specification<Order> specification, Sort sort, int limit, Class<T> type);
+
+    /**
+     * Reads the orders matching {@code filter} that come after {@code after}, at most {@code limit} of them unless it
+     * is 0, from the JDBC result set straight into {@code handler}: no entity, projection or row array is created per
+     * order.
+     */
+    void forEachRow(OrderFilter filter, Long after, int limit, OrderRowHandler handler);
+
+    /**
+     * Counts the orders matching {@code specification} and finds their highest id in one aggregate query.
+     */
+    OrderVersion version(Specification<Order> specification);
+}
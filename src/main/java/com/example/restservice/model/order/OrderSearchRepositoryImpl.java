@@ -0,0 +1,113 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class OrderSearchRepositoryImpl implements OrderSearchRepository {
+    private static final String SELECT = "select o.order_id, o.product_id, c.email, c.first_name, c.last_name "
+        + "from orders o join customers c on c.customer_id = o.customer_id";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    OrderSearchRepositoryImpl(final EntityManager entityManager, final JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public <T> Optional<T> findByOrderId(Long orderId, Class<T> type) {
+        return query((order, cq, cb) -> cb.equal(order.get("orderId"), orderId), Sort.unsorted(), type)
+            .getResultStream()
+            .findFirst();
+    }
+
+    @Override
+    public <T> List<T> search(Specification<Order> specification, Sort sort, int limit, Class<T> type) {
+        return query(specification, sort, type).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * The conditions of {@link OrderSpecifications#matching} written out in SQL, so that they are served by the same
+     * indexes.
+     */
+    @Override
+    public void forEachRow(OrderFilter filter, Long after, int limit, OrderRowHandler handler) {
+        final var sql = new StringBuilder(SELECT);
+        final var args = new ArrayList<>();
+        condition(sql, args, "c.email = ?", filter.email());
+        condition(sql, args, "o.product_id = ?", filter.productId());
+        condition(sql, args, "o.order_id >= ?", filter.minOrderId());
+        condition(sql, args, "o.order_id <= ?", filter.maxOrderId());
+        final var ascending = filter.direction().isAscending();
+        condition(sql, args, ascending ? "o.order_id > ?" : "o.order_id < ?", after);
+        sql.append(ascending ? " order by o.order_id asc" : " order by o.order_id desc");
+        if (limit > 0) {
+            sql.append(" limit ?");
+            args.add(limit);
+        }
+
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> handler.row(
+            rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3), rs.getString(4), rs.getString(5)),
+            args.toArray());
+    }
+
+    private static void condition(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            sql.append(args.isEmpty() ? " where " : " and ").append(condition);
+            args.add(value);
+        }
+    }
+
+    @Override
+    public OrderVersion version(Specification<Order> specification) {
+        final var cb = entityManager.getCriteriaBuilder();
+        final var cq = cb.createQuery(OrderVersion.class);
+        final var order = cq.from(Order.class);
+        final var nameVersion = cq.subquery(Long.class);
+        final var customer = nameVersion.from(Customer.class);
+        nameVersion.select(cb.max(customer.<Long>get("nameVersion")));
+
+        cq.select(cb.construct(OrderVersion.class, cb.count(order), cb.max(order.<Long>get("orderId")), nameVersion));
+        if (specification != null) {
+            final var predicate = specification.toPredicate(order, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+
+        return entityManager.createQuery(cq).getSingleResult();
+    }
+
+    private <T> TypedQuery<T> query(Specification<Order> specification, Sort sort, Class<T> type) {
+        final var cb = entityManager.getCriteriaBuilder();
+        final var cq = cb.createQuery(type);
+        final var order = cq.from(Order.class);
+        // the path the customer filter navigates too, so that both share the join
+        final var customer = order.get("customer");
+
+        cq.select(cb.construct(type, order.get("orderId"), order.get("productId"),
+            customer.get("email"), customer.get("firstName"), customer.get("lastName")));
+        if (specification != null) {
+            final var predicate = specification.toPredicate(order, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+        cq.orderBy(QueryUtils.toOrders(sort, order, cb));
+
+        return entityManager.createQuery(cq);
+    }
+}
@@ -1,69 +1,415 @@
 package com.example.restservice.model.order;
 
+import com.example.restservice.ReadReplicaProperties;
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.customer.CustomerService;
 import com.example.restservice.model.order.exceptions.*;
 import com.example.restservice.model.user.ReqresUserProvider;
 import com.example.restservice.model.user.User;
 import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import static org.springframework.data.jpa.domain.Specification.where;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
+@Profile("!reactive")
+@ImportRuntimeHints(OrderRuntimeHints.class)
 public class OrderService {
+    private static final Long FIRST_ORDER_CURSOR = 0L;
+    private static final String ORDER_ID = "orderId";
+
     private final OrderRepository orderRepository;
     private final ReqresUserProvider userProvider;
+    private final CustomerService customerService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderKeyIndex orderKeyIndex;
+    private final boolean readsFromReplicas;
+
+    private final Timer getByIdQuery;
+    private final Timer getPageQuery;
+    private final Timer searchQuery;
+    private final Timer versionQuery;
+    private final Timer saveUserLookup;
+    private final Timer saveCustomerLookup;
+    private final Timer saveInsert;
+    private final Timer batchUserLookup;
+    private final Timer batchCustomerLookup;
+    private final Timer batchExistingCheck;
+    private final Timer batchInsert;
+    private final Counter createdOrders;
+    private final Counter duplicateOrders;
+    private final Counter unknownUsers;
+    private final Counter primaryRetries;
 
     @Autowired
-    OrderService(final OrderRepository orderRepository, final ReqresUserProvider userProvider) {
+    OrderService(
+        final OrderRepository orderRepository,
+        final ReqresUserProvider userProvider,
+        final CustomerService customerService,
+        final PlatformTransactionManager transactionManager,
+        final ApplicationEventPublisher eventPublisher,
+        final OrderKeyIndex orderKeyIndex,
+        final ReadReplicaProperties readReplicaProperties,
+        final MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.userProvider = userProvider;
+        this.customerService = customerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.orderKeyIndex = orderKeyIndex;
+        this.readsFromReplicas = !readReplicaProperties.urls().isEmpty();
+
+        this.getByIdQuery = meterRegistry.timer("orders.query", "query", "by_id");
+        this.getPageQuery = meterRegistry.timer("orders.query", "query", "page");
+        this.searchQuery = meterRegistry.timer("orders.query", "query", "search");
+        this.versionQuery = meterRegistry.timer("orders.query", "query", "version");
+        this.saveUserLookup = meterRegistry.timer("orders.save", "stage", "user_lookup");
+        this.saveCustomerLookup = meterRegistry.timer("orders.save", "stage", "customer_lookup");
+        this.saveInsert = meterRegistry.timer("orders.save", "stage", "insert");
+        this.batchUserLookup = meterRegistry.timer("orders.save.batch", "stage", "user_lookup");
+        this.batchCustomerLookup = meterRegistry.timer("orders.save.batch", "stage", "customer_lookup");
+        this.batchExistingCheck = meterRegistry.timer("orders.save.batch", "stage", "existing_check");
+        this.batchInsert = meterRegistry.timer("orders.save.batch", "stage", "insert");
+        this.createdOrders = meterRegistry.counter("orders.created");
+        this.duplicateOrders = meterRegistry.counter("orders.rejected", "reason", "duplicate");
+        this.unknownUsers = meterRegistry.counter("orders.rejected", "reason", "user_not_found");
+        this.primaryRetries = meterRegistry.counter("orders.query.primary_retries");
     }
 
     public Order getById(Long id) {
-        return orderRepository.findById(id)
-            .orElseThrow(() -> new OrderNotFoundException(id));
+        final var start = System.nanoTime();
+        try {
+            return readYourWrites(() -> orderRepository.findById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        } finally {
+            record(getByIdQuery, start);
+        }
+    }
+
+    /**
+     * {@link #getById(Long)} projected into {@code type} without loading the entity.
+     */
+    public <T> T getById(Long id, Class<T> type) {
+        final var start = System.nanoTime();
+        try {
+            return readYourWrites(() -> orderRepository.findByOrderId(id, type))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        } finally {
+            record(getByIdQuery, start);
+        }
+    }
+
+    /**
+     * {@link #getById(Long, Class)} from the primary, for readers that keep what they read: a replica may still hold
+     * the name an order's customer had before a rename.
+     */
+    public <T> T getByIdPrimary(Long id, Class<T> type) {
+        final var start = System.nanoTime();
+        try {
+            return transactionTemplate.execute(status -> orderRepository.findByOrderId(id, type))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        } finally {
+            record(getByIdQuery, start);
+        }
+    }
+
+    /**
+     * Keyset page: at most {@code limit} orders with an id greater than {@code after}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> getPage(Long after, int limit) {
+        final var start = System.nanoTime();
+        try {
+            return orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(
+                Objects.requireNonNullElse(after, FIRST_ORDER_CURSOR),
+                PageRequest.of(0, limit)
+            );
+        } finally {
+            record(getPageQuery, start);
+        }
     }
 
-    public List<Order> getAll() {
-        return orderRepository.findAll();
+    /**
+     * Keyset page of the orders matching {@code filter}: at most {@code limit} orders that come after {@code after}
+     * in the filter's direction, projected into {@code type} without loading the entities.
+     */
+    @Transactional(readOnly = true)
+    public <T> List<T> search(OrderFilter filter, Long after, int limit, Class<T> type) {
+        final var start = System.nanoTime();
+        try {
+            return orderRepository.search(
+                OrderSpecifications.matching(filter, after), Sort.by(filter.direction(), ORDER_ID), limit, type);
+        } finally {
+            record(searchQuery, start);
+        }
+    }
+
+    /**
+     * {@link #search} from the primary, for readers that must not miss an order a read replica has not replayed yet.
+     */
+    public <T> List<T> searchPrimary(OrderFilter filter, Long after, int limit, Class<T> type) {
+        return transactionTemplate.execute(status -> search(filter, after, limit, type));
+    }
+
+    /**
+     * {@link #search} read row by row into {@code handler}, without creating an object per order.
+     */
+    @Transactional(readOnly = true)
+    public void search(OrderFilter filter, Long after, int limit, OrderRowHandler handler) {
+        final var start = System.nanoTime();
+        try {
+            orderRepository.forEachRow(filter, after, limit, handler);
+        } finally {
+            record(searchQuery, start);
+        }
+    }
+
+    /**
+     * {@link #search} of the rows whose {@link #version} was read before: they are read from a replica only when it
+     * holds that version already, and from the primary otherwise, so that they are never older than the version.
+     */
+    public void search(OrderFilter filter, Long after, int limit, OrderVersion version, OrderRowHandler handler) {
+        final var start = System.nanoTime();
+        try {
+            readAtLeast(version, filter, after, () -> orderRepository.forEachRow(filter, after, limit, handler));
+        } finally {
+            record(searchQuery, start);
+        }
+    }
+
+    /**
+     * The {@link OrderVersion} of the orders matching {@code filter} that come after {@code after}: it changes when an
+     * order is added to what {@link #search} or {@link #forEach} read for the same arguments, or a customer is renamed.
+     * It is read from the primary, so that it includes every order created before.
+     */
+    public OrderVersion version(OrderFilter filter, Long after) {
+        final var start = System.nanoTime();
+        try {
+            return transactionTemplate.execute(status ->
+                orderRepository.version(OrderSpecifications.matching(filter, after)));
+        } finally {
+            record(versionQuery, start);
+        }
+    }
+
+    /**
+     * Streams the orders matching {@code filter} that come after {@code after} row by row into {@code handler}, from a
+     * database cursor. They are those whose {@link #version} was read before, and are read like
+     * {@link #search(OrderFilter, Long, int, OrderVersion, OrderRowHandler)}.
+     */
+    public void forEach(OrderFilter filter, Long after, OrderVersion version, OrderRowHandler handler) {
+        readAtLeast(version, filter, after, () -> orderRepository.forEachRow(filter, after, 0, handler));
     }
 
     public Order save(Long productId, String email) {
-        final var user = userProvider.getUserByEmail(email)
-            .orElseThrow(() -> new UserNotFoundException(email));
+        var start = System.nanoTime();
+        final var user = userProvider.getUserByEmail(email);
+        start = record(saveUserLookup, start);
+        if (user.isEmpty()) {
+            unknownUsers.increment();
+            throw new UserNotFoundException(email);
+        }
+        if (orderKeyIndex.isReady() && orderKeyIndex.contains(new OrderKey(user.get().email(), productId))) {
+            duplicateOrders.increment();
+            throw alreadyOrdered(productId, user.get().email());
+        }
 
-        ensureProductWasNotOrderedByCustomerBefore(productId, user);
+        final var customer = customerService.getOrCreate(user.get());
+        start = record(saveCustomerLookup, start);
+
+        try {
+            return insert(new Order(productId, customer));
+        } finally {
+            record(saveInsert, start);
+        }
+    }
 
-        final var newOrder = new Order(productId, user.email(), user.firstName(), user.lastName());
+    /**
+     * Creates every valid order of the batch. The result at index {@code i} belongs to {@code orders.get(i)}; a
+     * rejected order does not prevent the others from being created.
+     */
+    public List<OrderCreationResult> saveAll(List<OrderKey> orders) {
+        var start = System.nanoTime();
+        final var users = userProvider.getUsersByEmail(orders.stream().map(OrderKey::email).collect(Collectors.toSet()));
+        start = record(batchUserLookup, start);
+        final var results = new OrderCreationResult[orders.size()];
+
+        final var candidates = new LinkedHashMap<OrderKey, Integer>();
+        for (int i = 0; i < orders.size(); i++) {
+            final var order = orders.get(i);
+            if (!users.containsKey(order.email())) {
+                unknownUsers.increment();
+                results[i] = OrderCreationResult.failed(new UserNotFoundException(order.email()));
+            } else if (candidates.putIfAbsent(order, i) != null) {
+                duplicateOrders.increment();
+                results[i] = OrderCreationResult.failed(new InvalidOrderException(String.format(
+                    "Product with id `%d` is ordered more than once by customer `%s`", order.productId(), order.email())));
+            }
+        }
+
+        final Set<OrderKey> existing;
+        if (candidates.isEmpty()) {
+            existing = Set.of();
+        } else if (orderKeyIndex.isReady()) {
+            existing = candidates.keySet().stream().filter(orderKeyIndex::contains).collect(Collectors.toSet());
+        } else {
+            // may be read from a lagging replica: an order it misses is caught by the unique constraint on insert
+            existing = readOnlyTransactionTemplate.execute(status -> Set.copyOf(orderRepository.findKeys(
+                candidates.keySet().stream().map(OrderKey::email).collect(Collectors.toSet()),
+                candidates.keySet().stream().map(OrderKey::productId).collect(Collectors.toSet())
+            )));
+        }
+        start = record(batchExistingCheck, start);
+
+        final var newOrders = new LinkedHashMap<Integer, OrderKey>();
+        candidates.forEach((order, index) -> {
+            if (existing.contains(order)) {
+                duplicateOrders.increment();
+                results[index] = OrderCreationResult.failed(alreadyOrdered(order.productId(), order.email()));
+            } else {
+                newOrders.put(index, order);
+            }
+        });
+
+        final Map<String, Customer> customers = newOrders.isEmpty() ? Map.of() : customerService.getOrCreateAll(
+            newOrders.values().stream().map(order -> users.get(order.email())).collect(Collectors.toSet()));
+        start = record(batchCustomerLookup, start);
 
         try {
-            return orderRepository.save(newOrder);
+            final var saved = transactionTemplate.execute(status -> orderRepository.saveAll(
+                newOrders.values().stream().map(order -> newOrder(order, users, customers)).toList()));
+            final var indexes = newOrders.keySet().iterator();
+            Objects.requireNonNull(saved).forEach(order -> {
+                results[indexes.next()] = OrderCreationResult.created(order);
+                eventPublisher.publishEvent(new OrderCreatedEvent(order));
+            });
+            createdOrders.increment(saved.size());
+        } catch (DataIntegrityViolationException e) {
+            // an order of the batch was created concurrently, find out which one by inserting them one at a time
+            newOrders.forEach((index, order) -> {
+                try {
+                    results[index] = OrderCreationResult.created(insert(newOrder(order, users, customers)));
+                } catch (OrderException orderException) {
+                    results[index] = OrderCreationResult.failed(orderException);
+                }
+            });
+        } finally {
+            record(batchInsert, start);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private Order insert(Order newOrder) {
+        final Order saved;
+        try {
+            saved = orderRepository.save(newOrder);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateOrder(e)) {
+                duplicateOrders.increment();
+                orderKeyIndex.stale(new OrderKey(newOrder.getEmail(), newOrder.getProductId()));
+                throw alreadyOrdered(newOrder.getProductId(), newOrder.getEmail());
+            }
+            throw failedToSave(newOrder);
         } catch (Exception e) {
-            throw new OrderException(String.format("Failed to save the order. ProductID: `%s`, user email: `%s`", productId, email));
+            throw failedToSave(newOrder);
         }
+
+        createdOrders.increment();
+        eventPublisher.publishEvent(new OrderCreatedEvent(saved));
+        return saved;
     }
 
-    private void ensureProductWasNotOrderedByCustomerBefore(Long productId, User user) {
-        final var existingOrders = orderRepository.findAll(
-            where(hasUser(user)).and(hasProduct(productId))
-        );
+    /**
+     * Reads in a read-only transaction, which goes to a read replica when there are any. An order that was created a
+     * moment ago may not have reached the replica yet, so one that is not found there is read again in a read-write
+     * transaction, which goes to the primary.
+     */
+    private <T> Optional<T> readYourWrites(Supplier<Optional<T>> read) {
+        final var found = readOnlyTransactionTemplate.execute(status -> read.get());
+        if (found.isPresent() || !readsFromReplicas) {
+            return found;
+        }
+        primaryRetries.increment();
+        return transactionTemplate.execute(status -> read.get());
+    }
 
-        if (!existingOrders.isEmpty()) {
-            throw new InvalidOrderException(
-                String.format("Product with id `%d` was already ordered by customer `%s`", productId, user.email())
-            );
+    /**
+     * Runs {@code read} in a read-only transaction when it has no replica to go to or the replica it goes to holds
+     * {@code version} of the orders matching {@code filter}, and in a read-write transaction on the primary otherwise.
+     */
+    private void readAtLeast(OrderVersion version, OrderFilter filter, Long after, Runnable read) {
+        final var current = readOnlyTransactionTemplate.execute(status -> {
+            if (readsFromReplicas
+                && !version.equals(orderRepository.version(OrderSpecifications.matching(filter, after)))) {
+                return false;
+            }
+            read.run();
+            return true;
+        });
+        if (!Boolean.TRUE.equals(current)) {
+            primaryRetries.increment();
+            transactionTemplate.executeWithoutResult(status -> read.run());
         }
     }
 
-    private static Specification<Order> hasUser(User user) {
-        return (order, cq, cb) -> cb.equal(order.get("email"), user.email());
+    /**
+     * Records the time since {@code start} and returns the current time, to be used as the start of the next stage.
+     */
+    private static long record(Timer timer, long start) {
+        final var now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
     }
 
-    private static Specification<Order> hasProduct(Long productId) {
-        return (order, cq, cb) -> cb.equal(order.get("productId"), productId);
+    private static Order newOrder(OrderKey order, Map<String, User> users, Map<String, Customer> customers) {
+        return new Order(order.productId(), customers.get(users.get(order.email()).email()));
+    }
+
+    static InvalidOrderException alreadyOrdered(Long productId, String email) {
+        return new InvalidOrderException(
+            String.format("Product with id `%d` was already ordered by customer `%s`", productId, email)
+        );
+    }
+
+    static OrderException failedToSave(Order order) {
+        return new OrderException(String.format(
+            "Failed to save the order. ProductID: `%s`, user email: `%s`", order.getProductId(), order.getEmail()));
+    }
+
+    private static boolean isDuplicateOrder(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return Order.CUSTOMER_PRODUCT_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
     }
 }
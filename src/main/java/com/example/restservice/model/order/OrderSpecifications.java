@@ -0,0 +1,51 @@
+package com.example.restservice.model.order;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import static org.springframework.data.jpa.domain.Specification.where;
+
+/**
+ * Composable order criteria. Every combination is covered by an index, see the migrations in {@code db/migration}.
+ */
+final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * The orders matching {@code filter} that come after the keyset cursor {@code after} in the filter's direction.
+     */
+    static Specification<Order> matching(OrderFilter filter, Long after) {
+        return where(hasEmail(filter.email()))
+            .and(hasProduct(filter.productId()))
+            .and(orderIdFrom(filter.minOrderId()))
+            .and(orderIdTo(filter.maxOrderId()))
+            .and(after(after, filter.direction()));
+    }
+
+    static Specification<Order> hasEmail(String email) {
+        return email == null ? null : (order, cq, cb) -> cb.equal(order.get("customer").get("email"), email);
+    }
+
+    static Specification<Order> hasProduct(Long productId) {
+        return productId == null ? null : (order, cq, cb) -> cb.equal(order.get("productId"), productId);
+    }
+
+    static Specification<Order> orderIdFrom(Long minOrderId) {
+        return minOrderId == null ? null : (order, cq, cb) -> cb.ge(order.get("orderId"), minOrderId);
+    }
+
+    static Specification<Order> orderIdTo(Long maxOrderId) {
+        return maxOrderId == null ? null : (order, cq, cb) -> cb.le(order.get("orderId"), maxOrderId);
+    }
+
+    static Specification<Order> after(Long cursor, Sort.Direction direction) {
+        if (cursor == null) {
+            return null;
+        }
+        return direction.isAscending()
+            ? (order, cq, cb) -> cb.gt(order.get("orderId"), cursor)
+            : (order, cq, cb) -> cb.lt(order.get("orderId"), cursor);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.restservice.model.order;
+
+/**
+ * How many orders a set holds, the highest order id among them ({@code null} when it is empty) and the highest name
+ * version of all customers. Orders are only ever added, and the name on an order only changes when its customer is
+ * renamed, so the version of a set changes whenever an order is added to it or any customer is renamed.
+ */
+public record OrderVersion(Long count, Long maxOrderId, Long nameVersion) {
+}
@@ -0,0 +1,137 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.Customer;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * R2DBC access to the {@code orders} table, joined with {@code customers}, for the reactive stack. Ids are taken from
+ * {@code orders_seq} and {@code customers_seq} one at a time; the values never overlap with the blocks Hibernate
+ * allocates from the same sequences.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveOrderRepository {
+    private static final String COLUMNS = "o.order_id, o.product_id, c.customer_id, c.email, c.first_name, c.last_name";
+    private static final String FROM = " from orders o join customers c on c.customer_id = o.customer_id";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    ReactiveOrderRepository(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Order> findById(Long orderId) {
+        return databaseClient.sql("select " + COLUMNS + FROM + " where o.order_id = :orderId")
+            .bind("orderId", orderId)
+            .map(ReactiveOrderRepository::toOrder)
+            .one();
+    }
+
+    /**
+     * The orders matching {@code filter} that come after the keyset cursor {@code after} in the filter's direction,
+     * ordered by id in that direction; all of them when {@code limit} is null. The conditions are those of
+     * {@link OrderSearchRepositoryImpl#forEachRow}, served by the same indexes.
+     */
+    public Flux<Order> find(OrderFilter filter, Long after, Integer limit) {
+        final var sql = new StringBuilder("select ").append(COLUMNS).append(FROM);
+        final var args = where(sql, filter, after);
+        sql.append(filter.direction().isAscending() ? " order by o.order_id asc" : " order by o.order_id desc");
+        if (limit != null) {
+            sql.append(" limit :limit");
+            args.put("limit", limit);
+        }
+
+        return bind(sql, args)
+            .map(ReactiveOrderRepository::toOrder)
+            .all();
+    }
+
+    /**
+     * The {@link OrderVersion} of what {@link #find} reads for the same {@code filter} and {@code after}.
+     */
+    public Mono<OrderVersion> version(OrderFilter filter, Long after) {
+        final var sql = new StringBuilder("select count(*) as order_count, max(o.order_id) as max_order_id, "
+            + "(select max(name_version) from customers) as name_version").append(FROM);
+        final var args = where(sql, filter, after);
+
+        return bind(sql, args)
+            .map(row -> new OrderVersion(
+                row.get("order_count", Long.class),
+                row.get("max_order_id", Long.class),
+                row.get("name_version", Long.class)))
+            .one();
+    }
+
+    private static Map<String, Object> where(StringBuilder sql, OrderFilter filter, Long after) {
+        final var args = new LinkedHashMap<String, Object>();
+        condition(sql, args, "c.email = :email", "email", filter.email());
+        condition(sql, args, "o.product_id = :productId", "productId", filter.productId());
+        condition(sql, args, "o.order_id >= :minOrderId", "minOrderId", filter.minOrderId());
+        condition(sql, args, "o.order_id <= :maxOrderId", "maxOrderId", filter.maxOrderId());
+        condition(sql, args, filter.direction().isAscending() ? "o.order_id > :after" : "o.order_id < :after",
+            "after", after);
+        return args;
+    }
+
+    private static void condition(StringBuilder sql, Map<String, Object> args, String condition, String name, Object value) {
+        if (value != null) {
+            sql.append(args.isEmpty() ? " where " : " and ").append(condition);
+            args.put(name, value);
+        }
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(CharSequence sql, Map<String, Object> args) {
+        var spec = databaseClient.sql(sql.toString());
+        for (final var arg : args.entrySet()) {
+            spec = spec.bind(arg.getKey(), arg.getValue());
+        }
+        return spec;
+    }
+
+    /**
+     * Inserts the order in one statement, together with its customer when the email is new. An existing customer
+     * gets the order's name, and a new name version when that changed it.
+     */
+    public Mono<Order> insert(Order order) {
+        return databaseClient.sql("with c as ("
+                + "insert into customers (customer_id, email, first_name, last_name) "
+                + "values (nextval('customers_seq'), :email, :firstName, :lastName) "
+                + "on conflict (email) do update set first_name = excluded.first_name, last_name = excluded.last_name, "
+                + "name_version = case when (customers.first_name, customers.last_name) "
+                + "is distinct from (excluded.first_name, excluded.last_name) "
+                + "then nextval('customers_name_version_seq') else customers.name_version end "
+                + "returning customer_id, email, first_name, last_name), "
+                + "o as (insert into orders (order_id, product_id, customer_id) "
+                + "select nextval('orders_seq'), :productId, customer_id from c returning order_id, product_id, customer_id) "
+                + "select " + COLUMNS + " from o join c on c.customer_id = o.customer_id")
+            .bind("productId", order.getProductId())
+            .bind("email", order.getEmail())
+            .bind("firstName", order.getFirstName())
+            .bind("lastName", order.getLastName())
+            .map(ReactiveOrderRepository::toOrder)
+            .one();
+    }
+
+    private static Order toOrder(Readable row) {
+        return new Order(
+            row.get("order_id", Long.class),
+            row.get("product_id", Long.class),
+            new Customer(
+                row.get("customer_id", Long.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class)
+            )
+        );
+    }
+}
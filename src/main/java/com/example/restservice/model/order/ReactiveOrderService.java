@@ -0,0 +1,102 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.order.exceptions.OrderException;
+import com.example.restservice.model.order.exceptions.OrderNotFoundException;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import io.r2dbc.postgresql.api.PostgresqlException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link OrderService} for the {@code reactive} profile, with the same validation and
+ * exceptions.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOrderService {
+    private final ReactiveOrderRepository orderRepository;
+    private final ReqresUserProvider userProvider;
+
+    @Autowired
+    ReactiveOrderService(final ReactiveOrderRepository orderRepository, final ReqresUserProvider userProvider) {
+        this.orderRepository = orderRepository;
+        this.userProvider = userProvider;
+    }
+
+    public Mono<Order> getById(Long id) {
+        return orderRepository.findById(id)
+            .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)));
+    }
+
+    /**
+     * Keyset page of the orders matching {@code filter}: at most {@code limit} orders that come after {@code after}
+     * in the filter's direction.
+     */
+    public Flux<Order> getPage(OrderFilter filter, Long after, int limit) {
+        return orderRepository.find(filter, after, limit);
+    }
+
+    /**
+     * Every order matching {@code filter} that comes after {@code after} in the filter's direction.
+     */
+    public Flux<Order> getAll(OrderFilter filter, Long after) {
+        return orderRepository.find(filter, after, null);
+    }
+
+    /**
+     * The {@link OrderVersion} of what {@link #getPage} or {@link #getAll} read for the same arguments.
+     */
+    public Mono<OrderVersion> version(OrderFilter filter, Long after) {
+        return orderRepository.version(filter, after);
+    }
+
+    public Mono<Order> save(Long productId, String email) {
+        return Mono.fromFuture(() -> userProvider.findUserByEmail(email))
+            .flatMap(user -> user
+                .map(found -> insert(new Order(productId, new Customer(found.email(), found.firstName(), found.lastName()))))
+                .orElseGet(() -> Mono.error(new UserNotFoundException(email))));
+    }
+
+    /**
+     * Creates the orders one after the other; the result at index {@code i} belongs to {@code orders.get(i)}. An
+     * order repeated within the batch is rejected by the unique index like any other duplicate.
+     */
+    public Mono<List<OrderCreationResult>> saveAll(List<OrderKey> orders) {
+        return Flux.fromIterable(orders)
+            .concatMap(order -> save(order.productId(), order.email())
+                .map(OrderCreationResult::created)
+                .onErrorResume(
+                    error -> error instanceof OrderException || error instanceof UserNotFoundException,
+                    error -> Mono.just(OrderCreationResult.failed((RuntimeException) error))))
+            .collectList();
+    }
+
+    private Mono<Order> insert(Order newOrder) {
+        return orderRepository.insert(newOrder)
+            .onErrorMap(error -> !(error instanceof OrderException), error -> isDuplicateOrder(error)
+                ? OrderService.alreadyOrdered(newOrder.getProductId(), newOrder.getEmail())
+                : OrderService.failedToSave(newOrder));
+    }
+
+    private static boolean isDuplicateOrder(Throwable error) {
+        if (!(error instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PostgresqlException violation) {
+                return violation.getErrorDetails().getConstraintName()
+                    .filter(Order.CUSTOMER_PRODUCT_CONSTRAINT::equalsIgnoreCase)
+                    .isPresent();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.restservice.model.order.exceptions;
+
+public class OrderQueueFullException extends OrderException {
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.restservice.model.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Opens after {@code failureThreshold} consecutive failures and rejects calls for {@code openDuration}. After that a
+ * single trial call is let through (half-open): its success closes the breaker again, its failure re-opens it.
+ */
+class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private record Status(State state, int consecutiveFailures, long openedAt) {
+    }
+
+    private static final Status CLOSED = new Status(State.CLOSED, 0, 0);
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReference<Status> status = new AtomicReference<>(CLOSED);
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    CircuitBreaker(
+        final String name,
+        final int failureThreshold,
+        final Duration openDuration,
+        final LongSupplier nanoTime,
+        final MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+
+        for (final var state : State.values()) {
+            transitions.put(state, meterRegistry.counter(
+                "circuitbreaker.transitions", "name", name, "to", state.name().toLowerCase()));
+        }
+        Gauge.builder("circuitbreaker.state", this, breaker -> breaker.state().ordinal())
+            .tag("name", name)
+            .description("0 - closed, 1 - open, 2 - half-open")
+            .register(meterRegistry);
+    }
+
+    State state() {
+        return status.get().state();
+    }
+
+    boolean tryAcquirePermission() {
+        while (true) {
+            final var current = status.get();
+            switch (current.state()) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    return false;
+                case OPEN:
+                    final var now = nanoTime.getAsLong();
+                    if (now - current.openedAt() < openDurationNanos) {
+                        return false;
+                    }
+                    if (transition(current, new Status(State.HALF_OPEN, current.consecutiveFailures(), now))) {
+                        return true;
+                    }
+            }
+        }
+    }
+
+    void onSuccess() {
+        while (true) {
+            final var current = status.get();
+            if (current == CLOSED || transition(current, CLOSED)) {
+                return;
+            }
+        }
+    }
+
+    void onFailure() {
+        while (true) {
+            final var current = status.get();
+            final var next = switch (current.state()) {
+                case OPEN -> current;
+                case HALF_OPEN -> new Status(State.OPEN, current.consecutiveFailures() + 1, nanoTime.getAsLong());
+                case CLOSED -> current.consecutiveFailures() + 1 >= failureThreshold
+                    ? new Status(State.OPEN, current.consecutiveFailures() + 1, nanoTime.getAsLong())
+                    : new Status(State.CLOSED, current.consecutiveFailures() + 1, 0);
+            };
+            if (next == current || transition(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private boolean transition(Status from, Status to) {
+        if (!status.compareAndSet(from, to)) {
+            return false;
+        }
+        if (from.state() != to.state()) {
+            transitions.get(to.state()).increment();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.restservice.model.user;
+
+import com.example.restservice.model.user.ReqresUserProvider.ReqresUsersResponse;
+import com.example.restservice.model.user.exceptions.UserException;
+import com.example.restservice.model.user.exceptions.UserProviderUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking client of the reqres.in users endpoint.
+ * <p>
+ * Every call is bounded by a connect and request timeout, retried with exponential backoff on I/O errors and 5xx
+ * responses, guarded by a {@link CircuitBreaker} and limited to {@code maxConcurrentRequests} calls in flight
+ * (bulkhead). Rejected calls fail immediately with {@link UserProviderUnavailableException}.
+ */
+class ReqresClient {
+    private static final String NAME = "reqres";
+
+    private final URI usersUri;
+    private final Duration requestTimeout;
+    private final int retries;
+    private final Duration retryBackoff;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+
+    private final Timer successfulRequests;
+    private final Timer failedRequests;
+    private final Counter rejectedByCircuitBreaker;
+    private final Counter rejectedByBulkhead;
+
+    ReqresClient(
+        final UserProviderProperties.Reqres properties,
+        final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry) {
+        this.usersUri = properties.baseUri();
+        this.requestTimeout = properties.requestTimeout();
+        this.retries = properties.retries();
+        this.retryBackoff = properties.retryBackoff();
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(properties.connectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        this.circuitBreaker = new CircuitBreaker(
+            NAME,
+            properties.circuitBreaker().failureThreshold(),
+            properties.circuitBreaker().openDuration(),
+            System::nanoTime,
+            meterRegistry
+        );
+        this.bulkhead = new Semaphore(properties.maxConcurrentRequests());
+
+        this.successfulRequests = meterRegistry.timer("reqres.requests", "outcome", "success");
+        this.failedRequests = meterRegistry.timer("reqres.requests", "outcome", "failure");
+        this.rejectedByCircuitBreaker = meterRegistry.counter("reqres.requests.rejected", "reason", "circuit_open");
+        this.rejectedByBulkhead = meterRegistry.counter("reqres.requests.rejected", "reason", "bulkhead_full");
+        Gauge.builder("reqres.bulkhead.available", bulkhead, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    CompletableFuture<ReqresUsersResponse> fetchPage(int page) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedByBulkhead.increment();
+            return CompletableFuture.failedFuture(
+                new UserProviderUnavailableException("Too many concurrent requests to reqres.in"));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            rejectedByCircuitBreaker.increment();
+            return CompletableFuture.failedFuture(
+                new UserProviderUnavailableException("reqres.in is unavailable, circuit breaker is open"));
+        }
+
+        final var request = HttpRequest.newBuilder(UriComponentsBuilder.fromUri(usersUri).queryParam("page", page).build().toUri())
+            .timeout(requestTimeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+
+        return send(request, 0).whenComplete((response, error) -> {
+            bulkhead.release();
+            if (error == null) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        });
+    }
+
+    CircuitBreaker.State circuitBreakerState() {
+        return circuitBreaker.state();
+    }
+
+    private CompletableFuture<ReqresUsersResponse> send(HttpRequest request, int attempt) {
+        final var start = System.nanoTime();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(this::parse)
+            .whenComplete((response, error) ->
+                (error == null ? successfulRequests : failedRequests).record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+            .exceptionallyCompose(error -> {
+                if (attempt >= retries || !isRetryable(error)) {
+                    return CompletableFuture.failedFuture(error);
+                }
+                final var backoff = retryBackoff.toNanos() << attempt;
+                return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(backoff, TimeUnit.NANOSECONDS))
+                    .thenCompose(ignored -> send(request, attempt + 1));
+            });
+    }
+
+    private ReqresUsersResponse parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new UpstreamStatusException(response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), ReqresUsersResponse.class);
+        } catch (IOException e) {
+            throw new UserException("Failed to parse users information");
+        }
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        final var cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof IOException
+            || cause instanceof UpstreamStatusException statusException && statusException.statusCode >= 500;
+    }
+
+    private static class UpstreamStatusException extends UserException {
+        private final int statusCode;
+
+        UpstreamStatusException(int statusCode) {
+            super(String.format("reqres.in responded with status %d", statusCode));
+            this.statusCode = statusCode;
+        }
+    }
+}
@@ -3,36 +3,134 @@ package com.example.restservice.model.user;
 import com.example.restservice.model.user.exceptions.UserException;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
+import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Repository
+@RegisterReflectionForBinding({ReqresUserProvider.ReqresUsersResponse.class, ReqresUserProvider.ReqresUser.class})
 public class ReqresUserProvider {
+    private static final Logger log = LoggerFactory.getLogger(ReqresUserProvider.class);
 
-    private static final String USERS_URI = "https://reqres.in/api/users";
-    private static final RestTemplate restTemplate = new RestTemplateBuilder().build();
+    private final ReqresClient client;
+    private final int maxConcurrentPages;
+    private final ExecutorService loaderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "reqres-user-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final UserDirectoryCache cache;
 
-    private List<User> users = null;
+    @Autowired
+    ReqresUserProvider(
+        final UserProviderProperties properties,
+        final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry) {
+        this.client = new ReqresClient(properties.reqres(), objectMapper, meterRegistry);
+        this.maxConcurrentPages = properties.reqres().maxConcurrentPages();
+        this.cache = new UserDirectoryCache(
+            this::fetchUsers,
+            properties.cache().ttl(),
+            properties.cache().refreshAhead(),
+            loaderExecutor,
+            Clock.systemUTC(),
+            meterRegistry
+        );
+    }
 
     public List<User> getUsers() {
+        return cache.get().users();
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        return cache.get().find(email);
+    }
+
+    public Map<String, User> getUsersByEmail(Collection<String> emails) {
+        return findAll(cache.get(), emails);
+    }
+
+    /**
+     * Non-blocking {@link #getUserByEmail(String)}: completes without waiting while the user directory is fresh.
+     */
+    public CompletableFuture<Optional<User>> findUserByEmail(String email) {
+        return cache.getAsync().thenApply(directory -> directory.find(email));
+    }
+
+    /**
+     * Non-blocking {@link #getUsersByEmail(Collection)}.
+     */
+    public CompletableFuture<Map<String, User>> findUsersByEmail(Collection<String> emails) {
+        return cache.getAsync().thenApply(directory -> findAll(directory, emails));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loaderExecutor.shutdownNow();
+    }
+
+    private List<User> fetchUsers() {
+        final var start = System.nanoTime();
+        final var firstPage = await(client.fetchPage(1));
+        final var totalPages = Objects.requireNonNullElse(firstPage.totalPages(), 1);
+
+        final var window = new Semaphore(maxConcurrentPages);
+        final var failed = new AtomicBoolean();
+        final var remainingPages = new ArrayList<CompletableFuture<ReqresUsersResponse>>(Math.max(totalPages - 1, 0));
+        for (int page = 2; page <= totalPages && !failed.get(); page++) {
+            window.acquireUninterruptibly();
+            remainingPages.add(client.fetchPage(page).whenComplete((response, error) -> {
+                if (error != null) {
+                    failed.set(true);
+                }
+                window.release();
+            }));
+        }
+
+        final var users = new ArrayList<User>(Objects.requireNonNullElse(firstPage.total(), firstPage.data().size()));
+        addUsers(users, firstPage);
+        remainingPages.forEach(page -> addUsers(users, await(page)));
+
+        log.info("Loaded {} users from {} pages in {} ms",
+            users.size(), totalPages, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return users;
+    }
+
+    private static Map<String, User> findAll(UserDirectory directory, Collection<String> emails) {
+        final var users = new HashMap<String, User>();
+        emails.forEach(email -> directory.find(email).ifPresent(user -> users.put(email, user)));
+
+        return users;
+    }
+
+    private static ReqresUsersResponse await(CompletableFuture<ReqresUsersResponse> page) {
         try {
-            if (Objects.isNull(users)) {
-                users = Objects.requireNonNull(restTemplate.getForObject(USERS_URI, ReqresUsersResponse.class))
-                    .data.stream().map(user -> new User(user.email(), user.firstName(), user.lastName()))
-                    .toList();
-            }
-
-            return users;
-        } catch (Exception e) {
-            throw new UserException("Failed to fetch users information");
+            return page.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof UserException userException
+                ? userException
+                : new UserException("Failed to fetch users information");
         }
     }
 
-    public Optional<User> getUserByEmail(String email) {
-        return getUsers().stream().filter(u -> u.email().equals(email)).findFirst();
+    private static void addUsers(List<User> users, ReqresUsersResponse page) {
+        page.data().forEach(user -> users.add(new User(user.email(), user.firstName(), user.lastName())));
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -56,12 +154,20 @@ public class ReqresUserProvider {
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     record ReqresUsersResponse(
+        @JsonProperty("page")
         Integer page,
+
+        @JsonProperty("per_page")
         Integer perPage,
+
+        @JsonProperty("total")
         Integer total,
+
+        @JsonProperty("total_pages")
         Integer totalPages,
+
+        @JsonProperty("data")
         List<ReqresUser> data
     ) {
     }
 }
-
@@ -0,0 +1,26 @@
+package com.example.restservice.model.user;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+record UserDirectory(List<User> users, Map<String, User> usersByEmail, Instant loadedAt) {
+
+    static UserDirectory of(Collection<User> users, Instant loadedAt) {
+        final var usersByEmail = new HashMap<String, User>(users.size() * 4 / 3 + 1);
+        users.forEach(user -> usersByEmail.putIfAbsent(user.email(), user));
+
+        return new UserDirectory(List.copyOf(users), Map.copyOf(usersByEmail), loadedAt);
+    }
+
+    Optional<User> find(String email) {
+        return Optional.ofNullable(usersByEmail.get(email));
+    }
+
+    int size() {
+        return usersByEmail.size();
+    }
+}
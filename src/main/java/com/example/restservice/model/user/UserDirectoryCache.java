@@ -0,0 +1,143 @@
+package com.example.restservice.model.user;
+
+import com.example.restservice.model.user.exceptions.UserException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last loaded {@link UserDirectory} in memory.
+ * <p>
+ * A directory is fresh for {@code ttl}; during the last {@code refreshAhead} of that window a reload is started in
+ * the background while callers keep getting the current one. Only one load runs at a time, concurrent callers share
+ * it. When a reload fails the previous directory is served, however old it is.
+ */
+class UserDirectoryCache {
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryCache.class);
+
+    private final Supplier<? extends Collection<User>> loader;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Executor executor;
+    private final Clock clock;
+
+    private final AtomicReference<CompletableFuture<UserDirectory>> inFlightLoad = new AtomicReference<>();
+    private volatile UserDirectory directory;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+    private final Timer successfulLoads;
+    private final Timer failedLoads;
+
+    UserDirectoryCache(
+        final Supplier<? extends Collection<User>> loader,
+        final Duration ttl,
+        final Duration refreshAhead,
+        final Executor executor,
+        final Clock clock,
+        final MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.executor = executor;
+        this.clock = clock;
+
+        this.hits = meterRegistry.counter("users.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("users.cache.requests", "result", "miss");
+        this.staleServed = meterRegistry.counter("users.cache.stale.served");
+        this.successfulLoads = meterRegistry.timer("users.cache.load", "outcome", "success");
+        this.failedLoads = meterRegistry.timer("users.cache.load", "outcome", "failure");
+        Gauge.builder("users.cache.size", this, cache -> cache.directory == null ? 0 : cache.directory.size())
+            .register(meterRegistry);
+    }
+
+    UserDirectory get() {
+        try {
+            return getAsync().join();
+        } catch (CompletionException e) {
+            throw (UserException) e.getCause();
+        }
+    }
+
+    /**
+     * Completes immediately while the directory is fresh, otherwise once the running or a new load finishes. Fails
+     * with a {@link UserException} only when nothing was ever loaded.
+     */
+    CompletableFuture<UserDirectory> getAsync() {
+        final var current = directory;
+        final var now = clock.instant();
+
+        if (current != null) {
+            final var expiresAt = current.loadedAt().plus(ttl);
+
+            if (now.isBefore(expiresAt)) {
+                hits.increment();
+                if (!now.isBefore(expiresAt.minus(refreshAhead))) {
+                    load();
+                }
+                return CompletableFuture.completedFuture(current);
+            }
+        }
+
+        misses.increment();
+        return load().handle((loaded, error) -> {
+            if (error == null) {
+                return loaded;
+            }
+            if (current != null) {
+                staleServed.increment();
+                return current;
+            }
+            throw new CompletionException(error instanceof UserException userException
+                ? userException
+                : new UserException("Failed to fetch users information"));
+        });
+    }
+
+    private CompletableFuture<UserDirectory> load() {
+        while (true) {
+            final var running = inFlightLoad.get();
+            if (running != null) {
+                return running;
+            }
+
+            final var load = new CompletableFuture<UserDirectory>();
+            if (inFlightLoad.compareAndSet(null, load)) {
+                executor.execute(() -> runLoad(load));
+                return load;
+            }
+        }
+    }
+
+    private void runLoad(CompletableFuture<UserDirectory> load) {
+        final var start = System.nanoTime();
+        try {
+            final var loaded = UserDirectory.of(loader.get(), clock.instant());
+            successfulLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            directory = loaded;
+            inFlightLoad.set(null);
+            load.complete(loaded);
+        } catch (Throwable e) {
+            failedLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("Failed to load users", e);
+
+            inFlightLoad.set(null);
+            load.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.restservice.model.user;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+@ConfigurationProperties("users")
+public record UserProviderProperties(
+    @DefaultValue
+    Cache cache,
+
+    @DefaultValue
+    Reqres reqres
+) {
+    public record Cache(
+        @DefaultValue("10m")
+        Duration ttl,
+
+        @DefaultValue("1m")
+        Duration refreshAhead
+    ) {
+    }
+
+    public record Reqres(
+        @DefaultValue("https://reqres.in/api/users")
+        URI baseUri,
+
+        @DefaultValue("4")
+        int maxConcurrentPages,
+
+        @DefaultValue("2s")
+        Duration connectTimeout,
+
+        @DefaultValue("5s")
+        Duration requestTimeout,
+
+        @DefaultValue("1")
+        int retries,
+
+        @DefaultValue("200ms")
+        Duration retryBackoff,
+
+        @DefaultValue("8")
+        int maxConcurrentRequests,
+
+        @DefaultValue
+        CircuitBreaker circuitBreaker
+    ) {
+    }
+
+    public record CircuitBreaker(
+        @DefaultValue("5")
+        int failureThreshold,
+
+        @DefaultValue("30s")
+        Duration openDuration
+    ) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.restservice.model.user.exceptions;
+
+public class UserProviderUnavailableException extends UserException {
+    public UserProviderUnavailableException(String message) {
+        super(message);
+    }
+}
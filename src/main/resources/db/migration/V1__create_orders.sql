@@ -0,0 +1,18 @@
+-- The orders table as Hibernate created it before the schema was migrated, with the unique constraint and sequence it
+-- did not create. A database holding that table is baselined at version 0, so that this migration completes it.
+create table if not exists orders (
+    order_id   bigint       not null,
+    email      varchar(255),
+    first_name varchar(255),
+    last_name  varchar(255),
+    product_id bigint,
+    constraint orders_pkey primary key (order_id)
+);
+-- orders created twice by concurrent requests before the constraint existed: the first one is kept
+delete from orders
+where email is not null and product_id is not null
+  and order_id not in (
+    select min(order_id) from orders where email is not null and product_id is not null group by email, product_id);
+alter table orders add constraint uk_orders_email_product_id unique (email, product_id);
+
+create sequence if not exists orders_seq start with 1 increment by 50;
@@ -0,0 +1,4 @@
+-- Keyset pages of GET /order filtered by email or product id, in either direction.
+-- email + product_id is covered by uk_orders_email_product_id, order id ranges by the primary key.
+create index idx_orders_email_order_id on orders (email, order_id);
+create index idx_orders_product_id_order_id on orders (product_id, order_id);
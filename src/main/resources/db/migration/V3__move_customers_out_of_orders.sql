@@ -0,0 +1,34 @@
+-- Customers are stored once instead of in every order; orders refer to them by a surrogate id.
+-- Ids are taken from customers_seq in blocks of 50 like order ids: the migrated customers each take one value, which
+-- leaves the blocks Hibernate reserves afterwards free.
+create sequence customers_seq start with 1 increment by 50;
+
+create table customers (
+    customer_id bigint       not null,
+    email       varchar(255) not null,
+    first_name  varchar(255),
+    last_name   varchar(255),
+    constraint customers_pkey primary key (customer_id),
+    constraint uk_customers_email unique (email)
+);
+
+-- the name of a customer's first order, all of them were copied from the same user
+insert into customers (customer_id, email, first_name, last_name)
+select nextval('customers_seq'), o.email, o.first_name, o.last_name
+from orders o
+where o.order_id in (select min(order_id) from orders where email is not null group by email);
+
+alter table orders add column customer_id bigint;
+update orders set customer_id = (select c.customer_id from customers c where c.email = orders.email);
+alter table orders alter column customer_id set not null;
+alter table orders add constraint fk_orders_customer_id foreign key (customer_id) references customers (customer_id);
+
+alter table orders drop constraint uk_orders_email_product_id;
+drop index idx_orders_email_order_id;
+alter table orders drop column email;
+alter table orders drop column first_name;
+alter table orders drop column last_name;
+
+-- replace the email indexes: duplicate orders and keyset pages of GET /order filtered by customer
+alter table orders add constraint uk_orders_customer_id_product_id unique (customer_id, product_id);
+create index idx_orders_customer_id_order_id on orders (customer_id, order_id);
@@ -0,0 +1,6 @@
+-- Renaming a customer changes the name on every order of that customer: each rename takes the next value of
+-- customers_name_version_seq, so that the highest name version, read from the index, changes with every rename.
+create sequence customers_name_version_seq;
+
+alter table customers add column name_version bigint not null default 0;
+create index idx_customers_name_version on customers (name_version);
@@ -0,0 +1,4 @@
+-- Order ids of a table created by Hibernate came from an identity column: they are taken from orders_seq from now on,
+-- starting after the existing ones. The sequence is only ever moved forward.
+alter table orders alter column order_id drop identity if exists;
+select setval('orders_seq', max(order_id)) from orders having max(order_id) > (select last_value from orders_seq);
@@ -0,0 +1,131 @@
+package com.example.restservice;
+
+import com.example.restservice.ReadReplicaDataSource.Replica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReadReplicaDataSourceTest {
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadReplicaDataSource dataSource = new ReadReplicaDataSource(
+        primary, List.of(new Replica("first", first), new Replica("second", second)), Duration.ofSeconds(10),
+        meterRegistry);
+
+    @Test
+    void getConnection_replicasAreHealthy_replicasTakeTurns() throws SQLException {
+        // given
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+
+        // when
+        final var connections = connections(4);
+
+        // then
+        assertThat(connections).containsExactly(firstConnection, secondConnection, firstConnection, secondConnection);
+        verifyNoInteractions(primary);
+        assertThat(meterRegistry.counter("orders.replicas.reads", "target", "replica").count()).isEqualTo(4);
+    }
+
+    @Test
+    void getConnection_replicaFailsToConnect_otherReplicaIsUsedFromThenOn() throws SQLException {
+        // given
+        when(first.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+        when(second.getConnection()).thenReturn(secondConnection);
+
+        // when
+        final var connections = connections(3);
+
+        // then
+        assertThat(connections).containsOnly(secondConnection);
+        verify(first, times(1)).getConnection();
+        assertThat(meterRegistry.get("orders.replicas.healthy").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_noReplicaIsHealthy_primaryIsUsed() throws SQLException {
+        // given
+        when(first.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+        when(second.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // when
+        final var connection = dataSource.getConnection();
+
+        // then
+        assertThat(connection).isSameAs(primaryConnection);
+        assertThat(meterRegistry.counter("orders.replicas.reads", "target", "primary").count()).isEqualTo(1);
+    }
+
+    @Test
+    void checkHealth_replicaLagsBehind_itIsSkippedUntilItCatchesUp() throws SQLException {
+        // given
+        lag(first, 30.0);
+        final var secondConnection = lag(second, 0.5);
+        dataSource.checkHealth();
+        final var whileLagging = connections(2);
+
+        // when
+        lag(first, 2.0);
+        dataSource.checkHealth();
+
+        // then
+        assertThat(whileLagging).containsOnly(secondConnection);
+        assertThat(dataSource.healthy()).isEqualTo(2);
+        assertThat(dataSource.replicas().get(0).lagSeconds()).isEqualTo(2.0);
+    }
+
+    @Test
+    void checkHealth_replicaDoesNotReceiveChanges_itIsUnhealthy() throws SQLException {
+        // given
+        lag(first, null);
+        lag(second, 0.0);
+
+        // when
+        dataSource.checkHealth();
+
+        // then
+        assertThat(dataSource.replicas().get(0).healthy()).isFalse();
+        assertThat(dataSource.replicas().get(0).status()).isEqualTo("not receiving changes from the primary");
+        assertThat(dataSource.replicas().get(1).healthy()).isTrue();
+    }
+
+    private List<Connection> connections(int count) throws SQLException {
+        final var connections = new ArrayList<Connection>();
+        for (int i = 0; i < count; i++) {
+            connections.add(dataSource.getConnection());
+        }
+        return connections;
+    }
+
+    /**
+     * Answers the health checks of {@code replica} with a lag of {@code seconds}, or with SQL {@code null}, and returns
+     * the connection it hands out from then on.
+     */
+    private static Connection lag(DataSource replica, Double seconds) throws SQLException {
+        final var result = mock(ResultSet.class);
+        when(result.next()).thenReturn(true);
+        when(result.getDouble(1)).thenReturn(seconds == null ? 0 : seconds);
+        when(result.wasNull()).thenReturn(seconds == null);
+        final var connection = mock(Connection.class, RETURNS_DEEP_STUBS);
+        when(connection.prepareStatement(ReadReplicaDataSource.LAG_QUERY).executeQuery()).thenReturn(result);
+        when(replica.getConnection()).thenReturn(connection);
+        return connection;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.restservice;
+
+import com.example.restservice.api.v1.order.OrderItem;
+import com.example.restservice.model.customer.CustomerService;
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderRepository;
+import com.example.restservice.model.order.OrderService;
+import com.example.restservice.model.user.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The replica is a schema of the test database of its own, which the primary's changes never reach: what is read from
+ * it shows which of the two a read went to. The order index is off, it would be loaded from the replica before the
+ * schema exists.
+ */
+@SpringBootTest(properties = {
+    "orders.replicas.urls=${spring.datasource.url}?currentSchema=orders_replica",
+    "orders.index.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("drop schema if exists orders_replica cascade");
+        jdbcTemplate.execute("create schema orders_replica");
+        jdbcTemplate.execute("create table orders_replica.customers (like public.customers including all)");
+        jdbcTemplate.execute("create table orders_replica.orders (like public.orders including all)");
+        jdbcTemplate.execute("insert into orders_replica.customers values (1, 'replica@example.com', 'Rep', 'Lica')");
+        jdbcTemplate.execute("insert into orders_replica.orders (order_id, product_id, customer_id) values (1, 7, 1)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        jdbcTemplate.execute("drop schema orders_replica cascade");
+    }
+
+    @Test
+    void forEach_replicaLacksTheVersion_rowsAreReadFromPrimary() {
+        // given
+        save(12345L);
+        final var version = orderService.version(OrderFilter.NONE, null);
+        final var retries = meterRegistry.counter("orders.query.primary_retries").count();
+        final var emails = new ArrayList<String>();
+
+        // when
+        orderService.forEach(OrderFilter.NONE, null, version, (orderId, productId, email, firstName, lastName) ->
+            emails.add(email));
+
+        // then
+        assertThat(emails).containsExactly("primary@example.com");
+        assertThat(meterRegistry.counter("orders.query.primary_retries").count()).isEqualTo(retries + 1);
+    }
+
+    @Test
+    void search_replicaIsConfigured_rowsAreReadFromReplica() {
+        // given
+        save(12345L);
+        final var emails = new ArrayList<String>();
+
+        // when
+        orderService.search(OrderFilter.NONE, null, 10, (orderId, productId, email, firstName, lastName) ->
+            emails.add(email));
+
+        // then
+        assertThat(emails).containsExactly("replica@example.com");
+    }
+
+    @Test
+    void getById_orderIsNotOnReplicaYet_orderIsReadFromPrimary() {
+        // given
+        final var saved = save(12345L);
+        final var retries = meterRegistry.counter("orders.query.primary_retries").count();
+
+        // when
+        final var order = orderService.getById(saved.getOrderId(), OrderItem.class);
+
+        // then
+        assertThat(order.productId()).isEqualTo(12345L);
+        assertThat(order.email()).isEqualTo("primary@example.com");
+        assertThat(meterRegistry.counter("orders.query.primary_retries").count()).isEqualTo(retries + 1);
+    }
+
+    @Test
+    void getOrderById_replicaLagsBehindRename_renamedOrderIsCached() throws Exception {
+        // given
+        final var saved = save(12345L);
+        jdbcTemplate.execute("delete from orders_replica.orders");
+        jdbcTemplate.execute("delete from orders_replica.customers");
+        jdbcTemplate.execute("insert into orders_replica.customers select * from public.customers");
+        jdbcTemplate.execute("insert into orders_replica.orders select * from public.orders");
+        customerService.getOrCreate(new User("primary@example.com", "Renamed", "Mary"));
+
+        // when & then
+        for (int request = 0; request < 2; request++) {
+            mockMvc.perform(get("/order/{id}", saved.getOrderId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Renamed"));
+        }
+    }
+
+    @Test
+    void version_replicaIsConfigured_versionIsReadFromPrimary() {
+        // given
+        save(123L);
+        save(456L);
+
+        // when
+        final var version = orderService.version(OrderFilter.NONE, null);
+
+        // then
+        assertThat(version.count()).isEqualTo(2);
+    }
+
+    @Test
+    void search_replicaLacksTheVersion_rowsAreReadFromPrimary() {
+        // given
+        save(12345L);
+        final var version = orderService.version(OrderFilter.NONE, null);
+        final var retries = meterRegistry.counter("orders.query.primary_retries").count();
+        final var emails = new ArrayList<String>();
+
+        // when
+        orderService.search(OrderFilter.NONE, null, 10, version, (orderId, productId, email, firstName, lastName) ->
+            emails.add(email));
+
+        // then
+        assertThat(emails).containsExactly("primary@example.com");
+        assertThat(meterRegistry.counter("orders.query.primary_retries").count()).isEqualTo(retries + 1);
+    }
+
+    @Test
+    void forEach_replicaHoldsTheVersion_rowsAreReadFromReplica() {
+        // given
+        save(12345L);
+        jdbcTemplate.execute("delete from orders_replica.orders");
+        jdbcTemplate.execute("delete from orders_replica.customers");
+        jdbcTemplate.execute("insert into orders_replica.customers select * from public.customers");
+        jdbcTemplate.execute("insert into orders_replica.orders select * from public.orders");
+        jdbcTemplate.execute("update orders_replica.customers set first_name = 'Rep' where email = 'primary@example.com'");
+        final var version = orderService.version(OrderFilter.NONE, null);
+        final var retries = meterRegistry.counter("orders.query.primary_retries").count();
+        final var firstNames = new ArrayList<String>();
+
+        // when
+        orderService.forEach(OrderFilter.NONE, null, version, (orderId, productId, email, firstName, lastName) ->
+            firstNames.add(firstName));
+
+        // then
+        assertThat(firstNames).containsExactly("Rep");
+        assertThat(meterRegistry.counter("orders.query.primary_retries").count()).isEqualTo(retries);
+    }
+
+    private Order save(Long productId) {
+        final var customer = customerService.getOrCreate(new User("primary@example.com", "Pri", "Mary"));
+        return orderRepository.save(new Order(productId, customer));
+    }
+}
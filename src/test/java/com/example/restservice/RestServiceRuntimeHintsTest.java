@@ -0,0 +1,109 @@
+package com.example.restservice;
+
+import com.example.restservice.api.v1.order.OrderResource;
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderKey;
+import com.example.restservice.model.order.OrderVersion;
+import com.example.restservice.model.order.OrderService;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hints a native image needs for what Spring does not find at build time.
+ */
+class RestServiceRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHints_reqresResponse_recordsAreBound() {
+        // when
+        registerBindings(ReqresUserProvider.class);
+
+        // then
+        assertThat(RuntimeHintsPredicates.reflection()
+            .onType(TypeReference.of(ReqresUserProvider.class.getName() + "$ReqresUsersResponse"))
+            .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+            .onType(TypeReference.of(ReqresUserProvider.class.getName() + "$ReqresUser"))
+            .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+    }
+
+    @Test
+    void registerHints_orderDtos_recordsAreBoundAndSerializersConstructed() {
+        // when
+        registerBindings(OrderResource.class);
+
+        // then
+        for (final var dto : new String[]{"OrderItem", "OrderList", "OrderListItem", "OrderSearchRequest",
+            "CreateOrderRequest", "CreateOrderResult", "CreateOrderResults"}) {
+            assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of(OrderResource.class.getPackageName() + "." + dto))
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        }
+        for (final var serializer : new String[]{"OrderItemSerializer", "OrderListItemSerializer"}) {
+            assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of(OrderResource.class.getPackageName() + "." + serializer))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        }
+    }
+
+    @Test
+    void registerHints_entities_fieldsAndQueryResultsAreReflective() {
+        // when
+        importHints(OrderService.class);
+
+        // then
+        assertThat(RuntimeHintsPredicates.reflection().onType(Order.class)
+            .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Customer.class)
+            .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(OrderKey.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(OrderVersion.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+            .accepts(hints);
+    }
+
+    @Test
+    void registerHints_zstd_nativeLibraryAndJniFieldsAreIncluded() throws Exception {
+        // when
+        importHints(Class.forName(OrderResource.class.getPackageName() + ".OrderCompressionFilter"));
+
+        // then
+        assertThat(RuntimeHintsPredicates.resource().forResource("linux/amd64/libzstd-jni-1.5.5-11.so")).accepts(hints);
+        assertThat(hints.jni().getTypeHint(ZstdOutputStreamNoFinalizer.class))
+            .isNotNull()
+            .satisfies(hint -> assertThat(hint.getMemberCategories()).contains(MemberCategory.DECLARED_FIELDS));
+    }
+
+    private void registerBindings(Class<?> type) {
+        new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(), type);
+    }
+
+    private void importHints(Class<?> type) {
+        Arrays.stream(type.getAnnotation(ImportRuntimeHints.class).value())
+            .map(registrar -> (RuntimeHintsRegistrar) BeanUtils.instantiateClass(registrar))
+            .forEach(registrar -> registrar.registerHints(hints, getClass().getClassLoader()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.restservice;
+
+import com.example.restservice.model.user.ReqresUserProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Warms up with admission control strict enough to reject all but the first requests of a client. The warm-up runs
+ * once per context, which is closed afterwards rather than kept holding its connections.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "startup.warmup.enabled=true",
+        "startup.warmup.iterations=20",
+        "orders.admission.enabled=true",
+        "orders.admission.rate-limit.rate=0.1",
+        "orders.admission.rate-limit.burst=2",
+        "orders.admission.concurrency-limit.initial=4",
+        "orders.admission.concurrency-limit.min=4"
+    })
+@DirtiesContext
+@DisabledInAotMode
+class StartupWarmupAdmissionTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void warmUp_admissionIsEnabled_requestsAreNeitherLimitedNorCounted() {
+        // when
+        final var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (startupWarmup.health().getStatus() != Status.UP) {
+            assertThat(System.nanoTime()).as("warmed up within %s", TIMEOUT).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        // then
+        assertThat(meterRegistry.find("http.server.requests").tag("uri", "/order").tag("status", "200").timer())
+            .isNotNull()
+            .satisfies(timer -> assertThat(timer.count()).isEqualTo(20));
+        assertThat(meterRegistry.find("orders.admission").counters())
+            .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+}
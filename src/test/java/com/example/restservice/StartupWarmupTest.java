@@ -0,0 +1,91 @@
+package com.example.restservice;
+
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.exceptions.UserException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.server.WebServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StartupWarmupTest {
+    private final ReqresUserProvider userProvider = mock(ReqresUserProvider.class);
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final Queue<Boolean> recognized = new ConcurrentLinkedQueue<>();
+    private HttpServer service;
+    private StartupWarmup warmup;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        service = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        service.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI().toString());
+            recognized.add(warmup.isWarmUp(exchange.getRequestHeaders().getFirst(StartupWarmup.TOKEN_HEADER)));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        service.start();
+
+        warmup = new StartupWarmup(userProvider, new StartupWarmupProperties(true, 3, List.of("/order?limit=100", "/order/1")));
+        final var webServer = mock(WebServer.class);
+        when(webServer.getPort()).thenReturn(service.getAddress().getPort());
+        final var event = mock(WebServerInitializedEvent.class);
+        when(event.getWebServer()).thenReturn(webServer);
+        warmup.webServerInitialized(event);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.stop(0);
+    }
+
+    @Test
+    void warmUp_serviceIsUp_usersAreLoadedAndOrderPathsRequestedBeforeReady() {
+        // given
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        // when
+        warmup.warmUp();
+
+        // then
+        verify(userProvider).getUsers();
+        assertThat(requests).hasSize(6).containsOnly("/order?limit=100", "/order/1");
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void isWarmUp_requestsCarryTheToken_requestsAreRecognizedWhileWarmingUp() {
+        // when
+        warmup.warmUp();
+
+        // then
+        assertThat(recognized).hasSize(6).containsOnly(true);
+        assertThat(warmup.isWarmUp(null)).isFalse();
+    }
+
+    @Test
+    void warmUp_userDirectoryFails_orderPathsAreStillRequestedAndReady() {
+        // given
+        when(userProvider.getUsers()).thenThrow(new UserException("Failed to fetch users information"));
+
+        // when
+        warmup.warmUp();
+
+        // then
+        assertThat(requests).hasSize(6);
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
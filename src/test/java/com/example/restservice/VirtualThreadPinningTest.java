@@ -0,0 +1,113 @@
+package com.example.restservice;
+
+import com.example.restservice.model.order.OrderRepository;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.User;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * A virtual thread that blocks inside a synchronized block or native frame keeps its carrier thread, which quietly
+ * turns the virtual-thread mode back into a small platform pool. Runs the request paths on virtual threads and fails
+ * on any pinning JFR reports.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.threads.virtual.enabled=true")
+@DisabledInAotMode
+class VirtualThreadPinningTest {
+    private static final String EMAIL = "john.doe@example.com";
+    private static final int ORDERS = 200;
+
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void requests_handledOnVirtualThreads_noCarrierThreadIsPinned() throws Exception {
+        // given
+        when(reqresUserProvider.getUserByEmail(EMAIL)).thenReturn(Optional.of(new User(EMAIL, "John", "Doe")));
+        final var pinned = new CopyOnWriteArrayList<RecordedEvent>();
+
+        // when
+        try (var recording = new RecordingStream();
+             var clients = Executors.newVirtualThreadPerTaskExecutor();
+             var httpClient = HttpClient.newHttpClient()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            final var feed = httpClient.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/order/stream")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+            final var streamed = clients.submit(() -> {
+                try (var lines = feed.body()) {
+                    return lines.filter(line -> line.startsWith("id: ")).limit(ORDERS).count();
+                }
+            });
+
+            final var requests = IntStream.range(0, ORDERS)
+                .mapToObj(productId -> clients.submit(() -> {
+                    final var orderId = restTemplate.postForObject(
+                        "/order", Map.of("productId", productId, "email", EMAIL), Long.class);
+                    return restTemplate.getForEntity("/order/" + orderId, String.class).getStatusCode();
+                }))
+                .toList();
+            for (final var request : requests) {
+                assertThat(request.get()).isEqualTo(HttpStatus.OK);
+            }
+            assertThat(streamed.get(30, TimeUnit.SECONDS)).isEqualTo(ORDERS);
+
+            recording.stop();
+        }
+
+        // then
+        assertThat(pinned).extracting(VirtualThreadPinningTest::pinnedAt).isEqualTo(List.of());
+    }
+
+    private static String pinnedAt(RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+            .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+            .findFirst()
+            .orElse("unknown");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.restservice.api.v1.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final Duration WINDOW = Duration.ofSeconds(1);
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimit concurrencyLimit =
+        new AdaptiveConcurrencyLimit("test", 10, 2, 100, 2, WINDOW, nanoTime::get, meterRegistry);
+
+    @Test
+    void tryAcquire_limitIsReached_requestIsRejected() {
+        // given
+        IntStream.range(0, 10).forEach(i -> assertThat(concurrencyLimit.tryAcquire()).isTrue());
+
+        // when
+        final var admitted = concurrencyLimit.tryAcquire();
+
+        // then
+        assertThat(admitted).isFalse();
+        assertThat(meterRegistry.get("test.in_flight").gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void release_latencyIsSteadyAndLimitIsUsed_limitGrows() {
+        // given
+        final var initial = concurrencyLimit.limit();
+
+        // when
+        IntStream.range(0, 5).forEach(i -> window(concurrencyLimit.limit(), FAST));
+
+        // then
+        assertThat(concurrencyLimit.limit()).isGreaterThan(initial);
+        assertThat(meterRegistry.get("test.limit").gauge().value()).isEqualTo(concurrencyLimit.limit());
+    }
+
+    @Test
+    void release_latencyRisesBeyondTolerance_limitShrinks() {
+        // given
+        IntStream.range(0, 5).forEach(i -> window(concurrencyLimit.limit(), FAST));
+        final var before = concurrencyLimit.limit();
+
+        // when
+        IntStream.range(0, 5).forEach(i -> window(concurrencyLimit.limit(), FAST * 10));
+
+        // then
+        assertThat(concurrencyLimit.limit()).isLessThan(before);
+    }
+
+    @Test
+    void release_fewRequestsInFlight_limitIsKept() {
+        // given
+        final var initial = concurrencyLimit.limit();
+
+        // when
+        IntStream.range(0, 5).forEach(i -> window(1, FAST));
+
+        // then
+        assertThat(concurrencyLimit.limit()).isEqualTo(initial);
+    }
+
+    @Test
+    void release_requestsAreNotMeasured_limitIsKept() {
+        // given
+        final var initial = concurrencyLimit.limit();
+        IntStream.range(0, initial).forEach(i -> concurrencyLimit.tryAcquire());
+        nanoTime.addAndGet(WINDOW.toNanos());
+
+        // when
+        IntStream.range(0, initial).forEach(i -> concurrencyLimit.release(-1));
+
+        // then
+        assertThat(concurrencyLimit.limit()).isEqualTo(initial);
+        assertThat(concurrencyLimit.inFlight()).isZero();
+    }
+
+    /**
+     * Runs {@code requests} concurrent requests of {@code latency} each through a window.
+     */
+    private void window(int requests, long latency) {
+        IntStream.range(0, requests).forEach(i -> assertThat(concurrencyLimit.tryAcquire()).isTrue());
+        nanoTime.addAndGet(WINDOW.toNanos());
+        IntStream.range(0, requests).forEach(i -> concurrencyLimit.release(latency));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.restservice.api.v1.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+    private static final long INTERVAL = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong nanoTime = new AtomicLong(Duration.ofDays(1).toNanos());
+    private final ClientRateLimiter rateLimiter =
+        new ClientRateLimiter("test", 10, 3, 100, nanoTime::get, new SimpleMeterRegistry());
+
+    @Test
+    void tryAcquire_burstIsUsedUp_requestIsRejectedUntilNextToken() {
+        // given
+        IntStream.range(0, 3).forEach(i -> assertThat(rateLimiter.tryAcquire("client")).isZero());
+
+        // when
+        final var wait = rateLimiter.tryAcquire("client");
+
+        // then
+        assertThat(wait).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tryAcquire_tokensRefilled_requestsArePermittedAtTheRate() {
+        // given
+        IntStream.range(0, 3).forEach(i -> rateLimiter.tryAcquire("client"));
+        nanoTime.addAndGet(INTERVAL * 2);
+
+        // when
+        final var first = rateLimiter.tryAcquire("client");
+        final var second = rateLimiter.tryAcquire("client");
+        final var third = rateLimiter.tryAcquire("client");
+
+        // then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tryAcquire_bucketIsIdle_itRefillsOnlyUpToTheBurst() {
+        // given
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // when
+        final var permitted = IntStream.range(0, 10).filter(i -> rateLimiter.tryAcquire("client") == 0).count();
+
+        // then
+        assertThat(permitted).isEqualTo(3);
+    }
+
+    @Test
+    void tryAcquire_otherClientUsedUpItsBurst_requestIsPermitted() {
+        // given
+        IntStream.range(0, 4).forEach(i -> rateLimiter.tryAcquire("spammer"));
+
+        // when
+        final var wait = rateLimiter.tryAcquire("client");
+
+        // then
+        assertThat(wait).isZero();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.restservice.api.v1.order;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "orders.admission.enabled=true",
+    "orders.admission.rate-limit.rate=0.1",
+    "orders.admission.rate-limit.burst=2",
+    "orders.admission.rate-limit.api-keys=partner-key"
+})
+@AutoConfigureMockMvc
+class OrderAdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getOrderById_clientExceededItsRate_tooManyRequestsStatusIsReturned() throws Exception {
+        // given
+        final var address = "10.0.0.1";
+        perform(getOrder().with(remoteAddress(address)));
+        perform(getOrder().with(remoteAddress(address)));
+
+        // when
+        final var response = perform(getOrder().with(remoteAddress(address)));
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(meterRegistry.counter("orders.admission", "decision", "rate_limited", "client", "address").count())
+            .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void getOrderById_knownApiKey_clientHasABucketOfItsOwn() throws Exception {
+        // given
+        final var address = "10.0.0.2";
+        perform(getOrder().with(remoteAddress(address)));
+        perform(getOrder().with(remoteAddress(address)));
+
+        // when
+        final var response = perform(getOrder().with(remoteAddress(address)).header("X-API-Key", "partner-key"));
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(meterRegistry.counter("orders.admission", "decision", "accepted", "client", "api_key").count())
+            .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void getOrderById_unknownApiKey_clientIsIdentifiedByAddress() throws Exception {
+        // given
+        final var address = "10.0.0.3";
+        perform(getOrder().with(remoteAddress(address)).header("X-API-Key", "first"));
+        perform(getOrder().with(remoteAddress(address)).header("X-API-Key", "second"));
+
+        // when
+        final var response = perform(getOrder().with(remoteAddress(address)).header("X-API-Key", "third"));
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void getHealth_clientExceededItsRate_requestIsNotLimited() throws Exception {
+        // given
+        final var address = "10.0.0.4";
+        perform(getOrder().with(remoteAddress(address)));
+        perform(getOrder().with(remoteAddress(address)));
+
+        // when
+        final var response = perform(MockMvcRequestBuilders.get("/actuator/health").with(remoteAddress(address)));
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static MockHttpServletRequestBuilder getOrder() {
+        return MockMvcRequestBuilders.get("/order/999");
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
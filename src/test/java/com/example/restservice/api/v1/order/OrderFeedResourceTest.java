@@ -0,0 +1,178 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.order.OrderRepository;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code GET /order/stream} over HTTP, with a buffer small enough for a subscriber to fall behind.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "orders.feed.buffer-size=4")
+@DisabledInAotMode
+class OrderFeedResourceTest {
+    private static final String EMAIL = "john.doe@example.com";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<Stream<String>> subscriptions = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        when(reqresUserProvider.getUserByEmail(EMAIL)).thenReturn(Optional.of(new User(EMAIL, "John", "Doe")));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        subscriptions.forEach(Stream::close);
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void streamNewOrders_orderCreated_orderIsPushed() throws Exception {
+        // given
+        final var events = subscribe("/order/stream", null);
+
+        // when
+        final var orderId = createOrder(1L);
+
+        // then
+        final var lines = assertTimeoutPreemptively(TIMEOUT, () -> readEvent(events));
+        assertThat(lines).containsExactly(
+            "id: " + orderId,
+            "event: order",
+            "data: {\"orderId\":%d,\"productId\":1,\"email\":\"%s\",\"firstName\":\"John\",\"lastName\":\"Doe\"}"
+                .formatted(orderId, EMAIL));
+    }
+
+    @Test
+    void streamNewOrders_lastEventId_storedOrdersAfterItAreReplayedBeforeNewOnes() throws Exception {
+        // given
+        final var first = createOrder(1L);
+        final var second = createOrder(2L);
+        final var third = createOrder(3L);
+
+        // when
+        final var events = subscribe("/order/stream", first);
+        final var replayed = assertTimeoutPreemptively(TIMEOUT, () -> readEventIds(events, 2));
+        final var fourth = createOrder(4L);
+
+        // then
+        assertThat(replayed).containsExactly(second, third);
+        assertThat(assertTimeoutPreemptively(TIMEOUT, () -> readEventIds(events, 1))).containsExactly(fourth);
+    }
+
+    @Test
+    void streamNewOrders_afterParameter_storedOrdersAfterItAreReplayed() throws Exception {
+        // given
+        final var first = createOrder(1L);
+        final var second = createOrder(2L);
+
+        // when
+        final var events = subscribe("/order/stream?after=" + first, null);
+
+        // then
+        assertThat(assertTimeoutPreemptively(TIMEOUT, () -> readEventIds(events, 1))).containsExactly(second);
+    }
+
+    @Test
+    void streamNewOrders_moreOrdersThanTheBuffer_everyOrderIsSentAtLeastOnce() throws Exception {
+        // given
+        final var events = subscribe("/order/stream", null);
+
+        // when
+        final var orderIds = LongStream.rangeClosed(1, 20).map(this::createOrder).boxed().toList();
+
+        // then
+        final var received = assertTimeoutPreemptively(TIMEOUT, () -> {
+            final var ids = new ArrayList<Long>();
+            while (!ids.containsAll(orderIds)) {
+                ids.addAll(readEventIds(events, 1));
+            }
+            return ids;
+        });
+        assertThat(received).containsAll(orderIds);
+    }
+
+    private long createOrder(long productId) {
+        return restTemplate.postForObject("/order", Map.of("productId", productId, "email", EMAIL), Long.class);
+    }
+
+    private Iterator<String> subscribe(String path, Long lastEventId) throws IOException, InterruptedException {
+        final var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId.toString());
+        }
+        // returns once the subscription is established and its first heartbeat sent
+        final var response = httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+            contentType -> assertThat(contentType).startsWith("text/event-stream"));
+
+        subscriptions.add(response.body());
+        return response.body().iterator();
+    }
+
+    private static List<String> readEvent(Iterator<String> lines) {
+        final var event = new ArrayList<String>();
+        while (true) {
+            final var line = lines.next();
+            if (line.isEmpty() && !event.isEmpty()) {
+                return event;
+            }
+            if (!line.isEmpty() && !line.startsWith(":")) {
+                event.add(line);
+            }
+        }
+    }
+
+    private static List<Long> readEventIds(Iterator<String> lines, int count) {
+        final var ids = new ArrayList<Long>();
+        while (ids.size() < count) {
+            readEvent(lines).stream()
+                .filter(line -> line.startsWith("id: "))
+                .forEach(line -> ids.add(Long.parseLong(line.substring("id: ".length()))));
+        }
+        return ids;
+    }
+}
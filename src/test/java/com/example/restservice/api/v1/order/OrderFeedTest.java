@@ -0,0 +1,221 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderCreatedEvent;
+import com.example.restservice.model.order.OrderFilter;
+import com.example.restservice.model.order.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderFeedTest {
+    private static final String EMAIL = "john.doe@example.com";
+    private static final Pattern EVENT_ID = Pattern.compile("^id: (\\d+)$", Pattern.MULTILINE);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatedOutputStream out = new GatedOutputStream();
+    private final AsyncContext async = mock(AsyncContext.class);
+    private OrderFeed feed;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final var response = mock(ServletResponse.class);
+        when(response.getOutputStream()).thenReturn(out);
+        when(async.getResponse()).thenReturn(response);
+        when(orderService.searchPrimary(any(OrderFilter.class), any(), anyInt(), eq(OrderListItem.class))).thenReturn(List.of());
+
+        feed = new OrderFeed(orderService, new ObjectMapper(),
+            new OrderFeedProperties(2, Duration.ofSeconds(30), Duration.ofMinutes(1)), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        out.release();
+    }
+
+    @Test
+    void subscribe_ordersCreated_eachOrderIsSentOnce() {
+        // given
+        feed.subscribe(async, null);
+        await(() -> out.written().startsWith(":"));
+
+        // when
+        LongStream.rangeClosed(1, 2).forEach(this::create);
+
+        // then
+        await(() -> eventIds().size() == 2);
+        assertThat(eventIds()).containsExactly(1L, 2L);
+        assertThat(out.written()).contains(
+            "id: 1\nevent: order\ndata: {\"orderId\":1,\"productId\":1,\"email\":\"john.doe@example.com\"");
+    }
+
+    @Test
+    void subscribe_afterOrderId_storedOrdersAreReplayedInPages() {
+        // given
+        final var firstPage = LongStream.rangeClosed(11, 10 + OrderFeed.REPLAY_PAGE_SIZE).mapToObj(OrderFeedTest::item).toList();
+        final var lastOrderId = 10L + OrderFeed.REPLAY_PAGE_SIZE;
+        when(orderService.searchPrimary(OrderFilter.NONE, 10L, OrderFeed.REPLAY_PAGE_SIZE, OrderListItem.class)).thenReturn(firstPage);
+        when(orderService.searchPrimary(OrderFilter.NONE, lastOrderId, OrderFeed.REPLAY_PAGE_SIZE, OrderListItem.class))
+            .thenReturn(List.of(item(lastOrderId + 1)));
+
+        // when
+        feed.subscribe(async, 10L);
+
+        // then
+        await(() -> eventIds().size() == OrderFeed.REPLAY_PAGE_SIZE + 1);
+        assertThat(eventIds()).first().isEqualTo(11L);
+        assertThat(eventIds()).last().isEqualTo(lastOrderId + 1);
+        assertThat(meterRegistry.counter("orders.feed.replays", "reason", "resumed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_subscriberFallsBehindTheBuffer_missedOrdersAreReadFromTheDatabase() {
+        // given
+        when(orderService.searchPrimary(
+            new OrderFilter(null, null, null, null, Sort.Direction.DESC), null, 1, OrderListItem.class))
+            .thenReturn(List.of(item(100)));
+        when(orderService.searchPrimary(OrderFilter.NONE, 101L, OrderFeed.REPLAY_PAGE_SIZE, OrderListItem.class))
+            .thenReturn(List.of(item(102), item(103), item(104)));
+        feed.subscribe(async, null);
+        await(() -> out.written().startsWith(":"));
+        out.hold();
+
+        // when
+        create(101);
+        await(out::isBlocked);
+        LongStream.rangeClosed(102, 104).forEach(this::create);
+        out.release();
+
+        // then
+        await(() -> eventIds().size() == 4);
+        assertThat(eventIds()).containsExactly(101L, 102L, 103L, 104L);
+        assertThat(meterRegistry.counter("orders.feed.replays", "reason", "lagged").count()).isEqualTo(1);
+        verify(orderService).searchPrimary(OrderFilter.NONE, 101L, OrderFeed.REPLAY_PAGE_SIZE, OrderListItem.class);
+    }
+
+    @Test
+    void subscribe_clientDisconnects_subscriptionEnds() {
+        // given
+        feed.subscribe(async, null);
+        await(() -> out.written().startsWith(":"));
+
+        // when
+        out.fail();
+        create(1);
+
+        // then
+        await(() -> feed.subscribers() == 0);
+        verify(async).complete();
+    }
+
+    private void create(long orderId) {
+        final var order = new Order(orderId, new Customer(1L, EMAIL, "John", "Doe"));
+        ReflectionTestUtils.setField(order, "orderId", orderId);
+        feed.onOrderCreated(new OrderCreatedEvent(order));
+    }
+
+    private static OrderListItem item(long orderId) {
+        return new OrderListItem(orderId, orderId, EMAIL, "John", "Doe");
+    }
+
+    private List<Long> eventIds() {
+        return EVENT_ID.matcher(out.written()).results().map(result -> Long.parseLong(result.group(1))).toList();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        final var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within %s", TIMEOUT).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    /**
+     * Records what is written; while held, writes block like those to a client that stopped reading.
+     */
+    private static class GatedOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private volatile boolean held;
+        private volatile boolean blocked;
+        private volatile boolean failing;
+
+        void hold() {
+            held = true;
+        }
+
+        void release() {
+            held = false;
+        }
+
+        void fail() {
+            failing = true;
+        }
+
+        boolean isBlocked() {
+            return blocked;
+        }
+
+        synchronized String written() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            while (held) {
+                blocked = true;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            blocked = false;
+            synchronized (this) {
+                bytes.write(b, off, len);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.order.OrderIngestService;
+import com.example.restservice.model.order.OrderRepository;
+import com.example.restservice.model.order.exceptions.OrderQueueFullException;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "orders.ingest.enabled=true")
+@AutoConfigureMockMvc
+@DisabledInAotMode
+class OrderIngestResourceTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    @SpyBean
+    private OrderIngestService orderIngestService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final static String EXISTING_USER_EMAIL = "john.doe@example.com";
+
+    @BeforeEach
+    public void setup() {
+        when(reqresUserProvider.getUserByEmail(EXISTING_USER_EMAIL)).thenReturn(Optional.of(new User(EXISTING_USER_EMAIL, "John", "Doe")));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        // flush the accepted orders before deleting them
+        orderIngestService.stop();
+        orderRepository.deleteAll();
+        orderIngestService.start();
+    }
+
+    @Test
+    void createOrder_orderIsValid_acceptedStatusAndOrderIdAreReturned() throws Exception {
+        // when
+        final var response = createOrder(12345L);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(Long.parseLong(response.getContentAsString())).isPositive();
+    }
+
+    @Test
+    void createOrder_productWasAlreadyAccepted_badRequestStatusIsReturned() throws Exception {
+        // given
+        createOrder(12345L);
+
+        // when
+        final var response = createOrder(12345L);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void createOrder_queueIsFull_tooManyRequestsStatusIsReturned() throws Exception {
+        // given
+        doThrow(new OrderQueueFullException("Order queue is full")).when(orderIngestService).accept(12345L, EXISTING_USER_EMAIL);
+
+        // when
+        final var response = createOrder(12345L);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private MockHttpServletResponse createOrder(Long productId) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/order")
+            .content(String.format("{\"productId\": %d, \"email\": \"%s\"}", productId, EXISTING_USER_EMAIL))
+            .contentType("application/json")).andReturn().getResponse();
+    }
+}
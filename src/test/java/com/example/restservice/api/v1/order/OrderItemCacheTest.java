@@ -0,0 +1,117 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.customer.CustomerRenamedEvent;
+import com.example.restservice.model.order.Order;
+import com.example.restservice.model.order.OrderCreatedEvent;
+import com.example.restservice.model.order.exceptions.OrderNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderItemCacheTest {
+    private static final OrderItem ORDER = new OrderItem(1L, 123L, "john.doe@example.com", "John", "Doe");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void get_orderIsCached_orderIsLoadedOnce(boolean serialized) {
+        // given
+        final var cache = cacheOf(serialized);
+
+        // when
+        cache.get(1L, this::load);
+        final var order = cache.get(1L, this::load);
+
+        // then
+        assertThat(order).isEqualTo(ORDER);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "orders.items").tag("result", "hit").functionCounter()
+            .count()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void get_orderWasCreated_orderIsNotLoaded(boolean serialized) {
+        // given
+        final var cache = cacheOf(serialized);
+        final var order = new Order(123L, new Customer(1L, "john.doe@example.com", "John", "Doe"));
+        ReflectionTestUtils.setField(order, "orderId", 1L);
+
+        // when
+        cache.onOrderCreated(new OrderCreatedEvent(order));
+
+        // then
+        assertThat(cache.get(1L, this::load)).isEqualTo(ORDER);
+        assertThat(loads).hasValue(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void get_customerWasRenamed_ordersOfTheCustomerAreLoadedAgain(boolean serialized) {
+        // given
+        final var cache = cacheOf(serialized);
+        final var otherCustomer = new OrderItem(2L, 123L, "jane.doe@example.com", "Jane", "Doe");
+        cache.put(ORDER);
+        cache.put(otherCustomer);
+
+        // when
+        cache.onCustomerRenamed(new CustomerRenamedEvent(new Customer(1L, "john.doe@example.com", "Johnny", "Doe")));
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        // then
+        assertThat(loads).hasValue(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void get_orderHasNoProduct_orderIsCached(boolean serialized) {
+        // given
+        final var cache = cacheOf(serialized);
+        final var withoutProduct = new OrderItem(1L, null, "john.doe@example.com", "John", "Doe");
+
+        // when
+        cache.put(withoutProduct);
+
+        // then
+        assertThat(cache.get(1L, this::load)).isEqualTo(withoutProduct);
+        assertThat(loads).hasValue(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void get_orderDoesNotExist_nothingIsCached(boolean serialized) {
+        // given
+        final var cache = cacheOf(serialized);
+
+        // when
+        assertThrows(OrderNotFoundException.class, () -> cache.get(2L, id -> {
+            throw new OrderNotFoundException(id);
+        }));
+        cache.get(2L, this::load);
+
+        // then
+        assertThat(loads).hasValue(1);
+    }
+
+    private OrderItem load(Long orderId) {
+        loads.incrementAndGet();
+        return ORDER;
+    }
+
+    private OrderItemCache cacheOf(boolean serialized) {
+        return new OrderItemCache(
+            new OrderCacheProperties(100, Duration.ofMinutes(10), serialized), new ObjectMapper(), meterRegistry);
+    }
+}
@@ -1,26 +1,36 @@
 package com.example.restservice.api.v1.order;
 
+import com.example.restservice.model.customer.CustomerService;
 import com.example.restservice.model.order.Order;
 import com.example.restservice.model.order.*;
-import com.example.restservice.model.user.ReqresUserProvider;
 import com.example.restservice.model.user.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdInputStream;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.json.JacksonTester;
-import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-import java.util.Optional;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -29,8 +39,9 @@ class OrderResourceTest {
     @Autowired
     private OrderRepository orderRepository;
 
-    @MockBean
-    private ReqresUserProvider reqresUserProvider;
+    @Autowired
+    private CustomerService customerService;
+
 
     @Autowired
     private MockMvc mockMvc;
@@ -40,13 +51,50 @@ class OrderResourceTest {
 
     private final static String EXISTING_USER_EMAIL = "john.doe@example.com";
     private final static String NON_EXISTING_USER_EMAIL = "unknown.person@example.com";
+    // reqres.in with only the existing user: a stub rather than a mock, so that the suite also runs in a native image
+    private final static String USERS_PAGE = """
+        {"page": 1, "per_page": 6, "total": 1, "total_pages": 1, "data": [
+            {"id": 1, "email": "%s", "first_name": "John", "last_name": "Doe"}
+        ]}""".formatted(EXISTING_USER_EMAIL);
+
+    private static HttpServer reqresStub;
+
+    @DynamicPropertySource
+    static void reqresStub(DynamicPropertyRegistry registry) {
+        // started when the property is first read, not when the test context is only processed ahead of time
+        registry.add("users.reqres.base-uri", OrderResourceTest::startReqresStub);
+    }
+
+    private static synchronized String startReqresStub() {
+        if (reqresStub == null) {
+            try {
+                reqresStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            reqresStub.createContext("/api/users", exchange -> {
+                final var body = USERS_PAGE.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            reqresStub.start();
+        }
+        return "http://localhost:" + reqresStub.getAddress().getPort() + "/api/users";
+    }
+
+    @AfterAll
+    static synchronized void stopReqresStub() {
+        if (reqresStub != null) {
+            reqresStub.stop(0);
+            reqresStub = null;
+        }
+    }
 
     @BeforeEach
     public void setup() {
         JacksonTester.initFields(this, new ObjectMapper());
-
-        when(reqresUserProvider.getUserByEmail(EXISTING_USER_EMAIL)).thenReturn(Optional.of(new User(EXISTING_USER_EMAIL, "John", "Doe")));
-        when(reqresUserProvider.getUserByEmail(NON_EXISTING_USER_EMAIL)).thenReturn(Optional.empty());
     }
 
     @AfterEach
@@ -68,6 +116,25 @@ class OrderResourceTest {
         assertThat(response.getContentAsString()).isEqualTo(orderItemJson.write(toOrderItem(savedOrder)).getJson());
     }
 
+    @Test
+    void getOrderById_orderHasNoProduct_orderAndListingAreReturnedWithoutProduct() throws Exception {
+        // given
+        final var savedOrder = orderRepository.save(prepareValidOrder(null));
+        final var expected = new OrderItem(savedOrder.getOrderId(), null, EXISTING_USER_EMAIL, "John", "Doe");
+
+        // when
+        final var item = mockMvc.perform(MockMvcRequestBuilders.get("/order/" + savedOrder.getOrderId()))
+            .andReturn().getResponse();
+        final var listing = mockMvc.perform(MockMvcRequestBuilders.get("/order")).andReturn().getResponse();
+
+        // then
+        assertThat(item.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(item.getContentAsString()).isEqualTo(orderItemJson.write(expected).getJson());
+        assertThat(listing.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(listing.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(savedOrder)))).getJson());
+    }
+
     @Test
     void getOrderById_orderDoesNotExist_NotFoundStatusIsReturned() throws Exception {
         // given
@@ -100,6 +167,352 @@ class OrderResourceTest {
             ).getJson());
     }
 
+    @Test
+    void listOrders_afterIsGiven_onlyNewerOrdersAreStreamed() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("after", order1.getOrderId().toString())
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_limitIsGiven_firstPageWithNextCursorIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+        orderRepository.save(prepareValidOrder(789L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "2")
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(
+                List.of(toOrderListItem(order1), toOrderListItem(order2)),
+                order2.getOrderId()
+            )).getJson());
+    }
+
+    @Test
+    void listOrders_lastPageIsRequested_noNextCursorIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "2")
+            .param("after", order1.getOrderId().toString())
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_limitIsOutOfRange_badRequestStatusIsReturned() throws Exception {
+        // given
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "0")
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void listOrders_filtersAndDescendingSortAreGiven_matchingOrdersAreReturnedNewestFirst() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        orderRepository.save(new Order(123L, customerService.getOrCreate(new User("jane.doe@example.com", "Jane", "Doe"))));
+        final var order3 = orderRepository.save(prepareValidOrder(456L));
+        final var order4 = orderRepository.save(prepareValidOrder(789L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "10")
+            .param("email", EXISTING_USER_EMAIL)
+            .param("minOrderId", order1.getOrderId().toString())
+            .param("maxOrderId", order3.getOrderId().toString())
+            .param("sort", "desc")
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order3), toOrderListItem(order1)))).getJson());
+        assertThat(order4.getOrderId()).isGreaterThan(order3.getOrderId());
+    }
+
+    @Test
+    void listOrders_productIdIsGiven_matchingOrdersAreStreamed() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(new Order(123L, customerService.getOrCreate(new User("jane.doe@example.com", "Jane", "Doe"))));
+        orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("productId", "123")
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order1), toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_sortIsUnknown_badRequestStatusIsReturned() throws Exception {
+        // given
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "10")
+            .param("sort", "sideways")
+            .contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void listOrders_gzipIsAccepted_compressedOrdersAreStreamed() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("Accept-Encoding", "gzip, deflate")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeaders("Vary")).containsExactly("Accept-Encoding", "Accept");
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order1), toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_zstdIsPreferred_compressedPageIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "1")
+            .header("Accept-Encoding", "gzip;q=0.5, zstd")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("zstd");
+        assertThat(decode(new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order1)), order1.getOrderId())).getJson());
+    }
+
+    @Test
+    void listOrders_noSupportedEncodingIsAccepted_ordersAreNotCompressed() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("Accept-Encoding", "br, gzip;q=0")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order1)))).getJson());
+    }
+
+    @Test
+    void listOrders_smileIsAccepted_smileOrdersAreStreamed() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .accept("application/x-jackson-smile")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).isEqualTo("application/x-jackson-smile");
+        assertThat(response.getHeaders("Vary")).contains("Accept");
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(response.getContentAsByteArray(), OrderList.class))
+            .isEqualTo(new OrderList(List.of(toOrderListItem(order1), toOrderListItem(order2))));
+    }
+
+    @Test
+    void listOrders_smileIsAcceptedWithLimit_smilePageIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "10")
+            .accept("application/x-jackson-smile")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).isEqualTo("application/x-jackson-smile");
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(response.getContentAsByteArray(), OrderList.class))
+            .isEqualTo(new OrderList(List.of(toOrderListItem(order1))));
+    }
+
+    @Test
+    void getOrderById_ifNoneMatchHoldsItsEtag_notModifiedStatusIsReturned() throws Exception {
+        // given
+        final var savedOrder = orderRepository.save(prepareValidOrder());
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order/" + savedOrder.getOrderId()))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order/" + savedOrder.getOrderId())
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(etag).startsWith("\"" + savedOrder.getOrderId() + "-");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader("ETag")).isEqualTo(etag);
+        assertThat(response.getHeaders("Vary")).contains("Accept");
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void getOrderById_customerRenamedSinceEtag_renamedOrderIsReturned() throws Exception {
+        // given
+        final var savedOrder = orderRepository.save(prepareValidOrder());
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order/" + savedOrder.getOrderId()))
+            .andReturn().getResponse().getHeader("ETag");
+        customerService.getOrCreate(new User(EXISTING_USER_EMAIL, "Johnny", "Doe"));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order/" + savedOrder.getOrderId())
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("ETag")).isNotEqualTo(etag);
+        assertThat(response.getContentAsString()).isEqualTo(orderItemJson.write(new OrderItem(
+            savedOrder.getOrderId(), savedOrder.getProductId(), EXISTING_USER_EMAIL, "Johnny", "Doe")).getJson());
+    }
+
+    @Test
+    void listOrders_ifNoneMatchHoldsItsEtag_notModifiedStatusIsReturned() throws Exception {
+        // given
+        orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(etag).matches("\"" + order2.getOrderId() + "-2-\\d+\"");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeaders("Vary")).contains("Accept");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void listOrders_orderCreatedSinceEtag_newPageIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order").param("limit", "10"))
+            .andReturn().getResponse().getHeader("ETag");
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("limit", "10")
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("ETag")).isNotEqualTo(etag);
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order1), toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_customerRenamedSinceEtag_renamedListingIsReturned() throws Exception {
+        // given
+        final var order = orderRepository.save(prepareValidOrder(123L));
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order"))
+            .andReturn().getResponse().getHeader("ETag");
+        customerService.getOrCreate(new User(EXISTING_USER_EMAIL, "Johnny", "Doe"));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("ETag")).isNotEqualTo(etag);
+        assertThat(response.getContentAsString()).isEqualTo(orderListJson.write(new OrderList(List.of(
+            new OrderListItem(order.getOrderId(), 123L, EXISTING_USER_EMAIL, "Johnny", "Doe")))).getJson());
+    }
+
+    @Test
+    void listOrders_sinceIsGiven_onlyNewerOrdersAreReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var order2 = orderRepository.save(prepareValidOrder(456L));
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .param("since", order1.getOrderId().toString())
+            .param("sort", "desc")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("ETag")).matches("\"" + order2.getOrderId() + "-1-\\d+\"");
+        assertThat(response.getContentAsString()).isEqualTo(
+            orderListJson.write(new OrderList(List.of(toOrderListItem(order2)))).getJson());
+    }
+
+    @Test
+    void listOrders_ifNoneMatchHoldsEtagOfCompressedListing_notModifiedStatusIsReturned() throws Exception {
+        // given
+        final var order1 = orderRepository.save(prepareValidOrder(123L));
+        final var etag = mockMvc.perform(MockMvcRequestBuilders.get("/order").header("Accept-Encoding", "zstd"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // when
+        final var compressed = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("Accept-Encoding", "zstd")
+            .header("If-None-Match", etag)).andReturn().getResponse();
+        final var identity = mockMvc.perform(MockMvcRequestBuilders.get("/order")
+            .header("If-None-Match", etag)).andReturn().getResponse();
+
+        // then
+        assertThat(etag).matches("\"" + order1.getOrderId() + "-1-\\d+-zstd\"");
+        assertThat(compressed.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(compressed.getHeader("ETag")).isEqualTo(etag);
+        assertThat(identity.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(identity.getHeader("ETag")).matches("\"" + order1.getOrderId() + "-1-\\d+\"");
+    }
+
     @Test
     void createOrder_orderIsValid_orderIsCreatedAndIdIsReturned() throws Exception {
         // given
@@ -165,12 +578,59 @@ class OrderResourceTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
     }
 
+    @Test
+    void createOrders_batchContainsValidAndInvalidOrders_validOrdersAreCreatedAndResultIsReturnedPerOrder() throws Exception {
+        // given
+        orderRepository.save(prepareValidOrder(999L));
+
+        final var createOrdersPayload = """
+            [
+                { "productId": "123", "email": "john.doe@example.com" },
+                { "productId": "456", "email": "john.doe@example.com" },
+                { "productId": "123", "email": "john.doe@example.com" },
+                { "productId": "789", "email": "unknown.person@example.com" },
+                { "productId": "999", "email": "john.doe@example.com" }
+            ]
+            """;
+
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.post("/order/batch")
+            .content(createOrdersPayload).contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        final var results = new ObjectMapper().readValue(response.getContentAsString(), CreateOrderResults.class).results();
+        assertThat(results).extracting(CreateOrderResult::status).containsExactly(200, 200, 400, 400, 400);
+        assertThat(orderRepository.findAll())
+            .extracting(Order::getOrderId)
+            .contains(results.get(0).orderId(), results.get(1).orderId())
+            .hasSize(3);
+    }
+
+    @Test
+    void createOrders_batchIsEmpty_badRequestStatusIsReturned() throws Exception {
+        // given
+        // when
+        final var response = mockMvc.perform(MockMvcRequestBuilders.post("/order/batch")
+            .content("[]").contentType("application/json")).andReturn().getResponse();
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private static String decode(InputStream compressed) throws IOException {
+        try (compressed) {
+            return new String(compressed.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     private Order prepareValidOrder() {
-        return new Order(12345L, EXISTING_USER_EMAIL, "John", "Doe");
+        return prepareValidOrder(12345L);
     }
 
     private Order prepareValidOrder(Long productId) {
-        return new Order(productId, EXISTING_USER_EMAIL, "John", "Doe");
+        return new Order(productId, customerService.getOrCreate(new User(EXISTING_USER_EMAIL, "John", "Doe")));
     }
 
     private OrderItem toOrderItem(Order order) {
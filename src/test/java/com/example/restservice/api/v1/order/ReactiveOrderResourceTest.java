@@ -0,0 +1,328 @@
+package com.example.restservice.api.v1.order;
+
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@DisabledInAotMode
+class ReactiveOrderResourceTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    private final static MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private final static String EXISTING_USER_EMAIL = "john.doe@example.com";
+    private final static String OTHER_USER_EMAIL = "jane.roe@example.com";
+    private final static String NON_EXISTING_USER_EMAIL = "unknown.person@example.com";
+
+    @BeforeEach
+    public void setup() {
+        when(reqresUserProvider.findUserByEmail(anyString())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(reqresUserProvider.findUserByEmail(EXISTING_USER_EMAIL)).thenReturn(
+            CompletableFuture.completedFuture(Optional.of(new User(EXISTING_USER_EMAIL, "John", "Doe"))));
+        when(reqresUserProvider.findUserByEmail(OTHER_USER_EMAIL)).thenReturn(
+            CompletableFuture.completedFuture(Optional.of(new User(OTHER_USER_EMAIL, "Jane", "Roe"))));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        databaseClient.sql("delete from orders").then().block();
+    }
+
+    @Test
+    void createOrder_orderIsValid_orderCanBeFetched() {
+        // given
+        final var orderId = createOrder(123L, EXISTING_USER_EMAIL);
+
+        // when
+        final var order = webTestClient.get().uri("/order/{id}", orderId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(OrderItem.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(order).isEqualTo(new OrderItem(orderId, 123L, EXISTING_USER_EMAIL, "John", "Doe"));
+    }
+
+    @Test
+    void createOrder_productWasAlreadyOrdered_badRequestStatusIsReturned() {
+        // given
+        createOrder(123L, EXISTING_USER_EMAIL);
+
+        // when & then
+        webTestClient.post().uri("/order")
+            .bodyValue(new CreateOrderRequest(123L, EXISTING_USER_EMAIL))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void createOrder_userDoesNotExist_badRequestStatusIsReturned() {
+        // when & then
+        webTestClient.post().uri("/order")
+            .bodyValue(new CreateOrderRequest(123L, NON_EXISTING_USER_EMAIL))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getOrderById_orderDoesNotExist_NotFoundStatusIsReturned() {
+        // when & then
+        webTestClient.get().uri("/order/999")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void listOrders_moreOrdersThanLimit_nextCursorIsReturned() {
+        // given
+        final var first = createOrder(123L, EXISTING_USER_EMAIL);
+        createOrder(456L, EXISTING_USER_EMAIL);
+
+        // when
+        final var page = webTestClient.get().uri("/order?limit=1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(OrderList.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(page.orders()).extracting(OrderListItem::orderId).containsExactly(first);
+        assertThat(page.nextCursor()).isEqualTo(first);
+    }
+
+    @Test
+    void streamOrders_ndjsonIsAccepted_oneOrderPerLineIsReturned() {
+        // given
+        final var first = createOrder(123L, EXISTING_USER_EMAIL);
+        final var second = createOrder(456L, EXISTING_USER_EMAIL);
+
+        // when
+        final var orders = webTestClient.get().uri("/order")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OrderListItem.class).getResponseBody().collectList().block();
+
+        // then
+        assertThat(orders).extracting(OrderListItem::orderId).containsExactly(first, second);
+    }
+
+    @Test
+    void streamOrders_jsonIsAccepted_orderListIsReturned() {
+        // given
+        final var first = createOrder(123L, EXISTING_USER_EMAIL);
+        final var second = createOrder(456L, EXISTING_USER_EMAIL);
+
+        // when
+        final var orders = webTestClient.get().uri("/order?after={after}", first - 1)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(OrderList.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(orders.orders()).extracting(OrderListItem::orderId).containsExactly(first, second);
+        assertThat(orders.nextCursor()).isNull();
+    }
+
+    @Test
+    void listOrders_filtersAndSortAreGiven_matchingOrdersAreReturnedInThatOrder() {
+        // given
+        final var first = createOrder(123L, EXISTING_USER_EMAIL);
+        createOrder(123L, OTHER_USER_EMAIL);
+        final var third = createOrder(456L, EXISTING_USER_EMAIL);
+        createOrder(789L, EXISTING_USER_EMAIL);
+
+        // when
+        final var page = webTestClient.get()
+            .uri("/order?limit=10&email={email}&maxOrderId={max}&sort=desc", EXISTING_USER_EMAIL, third)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(OrderList.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(page.orders()).extracting(OrderListItem::orderId).containsExactly(third, first);
+    }
+
+    @Test
+    void streamOrders_productIdAndSinceAreGiven_matchingOrdersAreReturned() {
+        // given
+        final var first = createOrder(123L, EXISTING_USER_EMAIL);
+        final var second = createOrder(123L, OTHER_USER_EMAIL);
+        createOrder(456L, OTHER_USER_EMAIL);
+
+        // when
+        final var orders = webTestClient.get().uri("/order?productId=123&since={since}", first)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(OrderList.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(orders.orders()).extracting(OrderListItem::orderId).containsExactly(second);
+    }
+
+    @Test
+    void listOrders_sortIsInvalid_badRequestStatusIsReturned() {
+        // when & then
+        webTestClient.get().uri("/order?limit=10&sort=sideways")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void listOrders_smileIsAccepted_smileWithItsOwnETagIsReturned() {
+        // given
+        createOrder(123L, EXISTING_USER_EMAIL);
+        final var json = webTestClient.get().uri("/order?limit=10")
+            .exchange()
+            .returnResult(OrderList.class).getResponseHeaders().getETag();
+
+        // when
+        final var smile = webTestClient.get().uri("/order?limit=10")
+            .accept(SMILE)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(SMILE)
+            .returnResult(byte[].class).getResponseHeaders().getETag();
+
+        // then
+        assertThat(smile).isNotEqualTo(json).endsWith("-smile\"");
+    }
+
+    @Test
+    void streamOrders_onlySmileIsAccepted_notAcceptableStatusIsReturned() {
+        // when & then
+        webTestClient.get().uri("/order")
+            .accept(SMILE)
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    @Test
+    void streamNewOrders_feedIsRequested_badRequestStatusIsReturned() {
+        // when & then
+        webTestClient.get().uri("/order/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void listOrders_eTagIsCurrent_notModifiedStatusIsReturned() {
+        // given
+        createOrder(123L, EXISTING_USER_EMAIL);
+        final var etag = webTestClient.get().uri("/order?limit=10")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .returnResult(OrderList.class).getResponseHeaders().getETag();
+
+        // when & then
+        webTestClient.get().uri("/order?limit=10")
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectBody().isEmpty();
+        createOrder(456L, EXISTING_USER_EMAIL);
+        webTestClient.get().uri("/order?limit=10")
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void streamOrders_eTagIsCurrent_notModifiedStatusIsReturned() {
+        // given
+        createOrder(123L, EXISTING_USER_EMAIL);
+        final var etag = webTestClient.get().uri("/order?productId=123")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OrderList.class).getResponseHeaders().getETag();
+
+        // when & then
+        webTestClient.get().uri("/order?productId=123")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isNotModified();
+        webTestClient.get().uri("/order?productId=123")
+            .accept(MediaType.APPLICATION_JSON)
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void getOrderById_eTagIsCurrent_notModifiedStatusIsReturned() {
+        // given
+        final var orderId = createOrder(123L, EXISTING_USER_EMAIL);
+        final var etag = webTestClient.get().uri("/order/{id}", orderId)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OrderItem.class).getResponseHeaders().getETag();
+
+        // when & then
+        webTestClient.get().uri("/order/{id}", orderId)
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    void createOrders_batchContainsRejectedOrders_resultPerOrderIsReturned() {
+        // when
+        final var results = webTestClient.post().uri("/order/batch")
+            .bodyValue(List.of(
+                new CreateOrderRequest(123L, EXISTING_USER_EMAIL),
+                new CreateOrderRequest(123L, EXISTING_USER_EMAIL),
+                new CreateOrderRequest(456L, NON_EXISTING_USER_EMAIL)))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(CreateOrderResults.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(results.results()).extracting(CreateOrderResult::status).containsExactly(200, 400, 400);
+    }
+
+    private Long createOrder(Long productId, String email) {
+        return webTestClient.post().uri("/order")
+            .bodyValue(Map.of("productId", productId, "email", email))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Long.class).returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.restservice.model.customer;
+
+import com.example.restservice.model.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Customers are not deleted afterwards, other tests may hold them in the shared context; every test uses new emails.
+ */
+@SpringBootTest
+class CustomerServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void getOrCreate_customerIsNew_customerIsCreatedOnce() {
+        // given
+        final var user = new User(uniqueEmail(), "John", "Doe");
+
+        // when
+        final var created = customerService.getOrCreate(user);
+        final var found = customerService.getOrCreate(user);
+
+        // then
+        assertThat(found).isEqualTo(created);
+        assertThat(customerRepository.findByEmail(user.email())).contains(created);
+    }
+
+    @Test
+    void getOrCreate_nameChanged_customerIsRenamed() {
+        // given
+        final var email = uniqueEmail();
+        final var created = customerService.getOrCreate(new User(email, "John", "Doe"));
+
+        // when
+        final var renamed = customerService.getOrCreate(new User(email, "Johnny", "Doe"));
+
+        // then
+        assertThat(renamed.getCustomerId()).isEqualTo(created.getCustomerId());
+        assertThat(renamed.getFirstName()).isEqualTo("Johnny");
+        assertThat(customerRepository.findByEmail(email)).contains(renamed);
+    }
+
+    @Test
+    void getOrCreateAll_someCustomersExist_missingCustomersAreCreated() {
+        // given
+        final var existing = customerService.getOrCreate(new User(uniqueEmail(), "John", "Doe"));
+        final var john = new User(existing.getEmail(), "John", "Doe");
+        final var jane = new User(uniqueEmail(), "Jane", "Doe");
+
+        // when
+        final var customers = customerService.getOrCreateAll(List.of(john, jane));
+
+        // then
+        assertThat(customers).containsEntry(john.email(), existing);
+        assertThat(customerRepository.findByEmail(jane.email())).contains(customers.get(jane.email()));
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.CustomerService;
+import com.example.restservice.model.order.exceptions.InvalidOrderException;
+import com.example.restservice.model.order.exceptions.OrderQueueFullException;
+import com.example.restservice.model.user.ReqresUserProvider;
+import com.example.restservice.model.user.User;
+import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * The services are created unstarted, so orders stay queued until {@link OrderIngestService#stop()} flushes them.
+ */
+@SpringBootTest
+@DisabledInAotMode
+class OrderIngestServiceTest {
+    @MockBean
+    private ReqresUserProvider reqresUserProvider;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderKeyIndex orderKeyIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final static String EXISTING_USER_EMAIL = "john.doe@example.com";
+    private final static String NEW_USER_EMAIL = "jane.roe@example.com";
+
+    @BeforeEach
+    public void setup() {
+        when(reqresUserProvider.getUserByEmail(anyString())).thenReturn(Optional.empty());
+        when(reqresUserProvider.getUserByEmail(EXISTING_USER_EMAIL)).thenReturn(
+            Optional.of(new User(EXISTING_USER_EMAIL, "John", "Doe")));
+        when(reqresUserProvider.getUserByEmail(NEW_USER_EMAIL)).thenReturn(
+            Optional.of(new User(NEW_USER_EMAIL, "Jane", "Roe")));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        jdbcTemplate.update("delete from customers where email = ?", NEW_USER_EMAIL);
+    }
+
+    @Test
+    void accept_ordersAreValid_ordersAreWrittenInOneBatchOnFlush() {
+        // given
+        final var orderIngestService = orderIngestService(10);
+        final var batches = meterRegistry.summary("orders.ingest.batch.size").count();
+        final var first = orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+        final var second = orderIngestService.accept(456L, EXISTING_USER_EMAIL);
+        assertThat(orderRepository.count()).isZero();
+
+        // when
+        flush(orderIngestService);
+
+        // then
+        assertThat(orderRepository.findAll()).containsExactlyInAnyOrder(first, second);
+        assertThat(meterRegistry.summary("orders.ingest.batch.size").count()).isEqualTo(batches + 1);
+    }
+
+    @Test
+    void accept_userDoesNotExist_exceptionIsThrown() {
+        // given
+        final var orderIngestService = orderIngestService(10);
+
+        // when & then
+        assertThrows(UserNotFoundException.class, () -> orderIngestService.accept(123L, "unknown.person@example.com"));
+    }
+
+    @Test
+    void accept_productIsAlreadyQueued_exceptionIsThrown() {
+        // given
+        final var orderIngestService = orderIngestService(10);
+        orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+
+        // when & then
+        assertThrows(InvalidOrderException.class, () -> orderIngestService.accept(123L, EXISTING_USER_EMAIL));
+    }
+
+    @Test
+    void accept_productWasAlreadyOrdered_exceptionIsThrown() {
+        // given
+        final var orderIngestService = orderIngestService(10);
+        orderService.save(123L, EXISTING_USER_EMAIL);
+
+        // when & then
+        assertThrows(InvalidOrderException.class, () -> orderIngestService.accept(123L, EXISTING_USER_EMAIL));
+    }
+
+    @Test
+    void accept_queueIsFull_exceptionIsThrownAndOrderCanBeRetried() {
+        // given
+        final var orderIngestService = orderIngestService(1);
+        final var rejected = meterRegistry.counter("orders.rejected", "reason", "queue_full").count();
+        orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+
+        // when
+        assertThrows(OrderQueueFullException.class, () -> orderIngestService.accept(456L, EXISTING_USER_EMAIL));
+        flush(orderIngestService);
+        orderIngestService.start();
+        final var retried = orderIngestService.accept(456L, EXISTING_USER_EMAIL);
+        flush(orderIngestService);
+
+        // then
+        assertThat(meterRegistry.counter("orders.rejected", "reason", "queue_full").count()).isEqualTo(rejected + 1);
+        assertThat(orderRepository.findById(retried.getOrderId())).contains(retried);
+    }
+
+    @Test
+    void accept_queueIsFull_noCustomerIsCreatedAndNoIdIsTaken() {
+        // given
+        final var orderIngestService = orderIngestService(1);
+        final var first = orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+
+        // when
+        assertThrows(OrderQueueFullException.class, () -> orderIngestService.accept(456L, NEW_USER_EMAIL));
+
+        // then
+        assertThat(jdbcTemplate.queryForObject(
+            "select count(*) from customers where email = ?", Long.class, NEW_USER_EMAIL)).isZero();
+        flush(orderIngestService);
+        orderIngestService.start();
+        assertThat(orderIngestService.accept(456L, EXISTING_USER_EMAIL).getOrderId()).isEqualTo(first.getOrderId() + 1);
+        flush(orderIngestService);
+    }
+
+    @Test
+    void accept_serviceIsStopped_exceptionIsThrown() {
+        // given
+        final var orderIngestService = orderIngestService(10);
+        flush(orderIngestService);
+
+        // when & then
+        assertThrows(OrderQueueFullException.class, () -> orderIngestService.accept(123L, EXISTING_USER_EMAIL));
+    }
+
+    @Test
+    void accept_ordersAreAlsoSavedSynchronously_idsDoNotCollide() {
+        // given
+        final var orderIngestService = orderIngestService(1000);
+        final var ids = new ArrayList<Long>();
+
+        // when
+        for (long productId = 0; productId < 240; productId += 2) {
+            ids.add(orderService.save(productId, EXISTING_USER_EMAIL).getOrderId());
+            ids.add(orderIngestService.accept(productId + 1, EXISTING_USER_EMAIL).getOrderId());
+        }
+        flush(orderIngestService);
+
+        // then
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(orderRepository.count()).isEqualTo(240);
+    }
+
+    @Test
+    void accept_writingABatchFailsUnexpectedly_batchIsDroppedAndNextOnesAreWritten() {
+        // given
+        final var failures = meterRegistry.counter("orders.ingest.failures", "stage", "write").count();
+        final var lost = meterRegistry.counter("orders.ingest.lost").count();
+        final var failingOnce = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            private boolean failed;
+
+            @Override
+            public int update(String sql, Object... args) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("Unexpected failure");
+                }
+                return super.update(sql, args);
+            }
+        };
+        final var orderIngestService = orderIngestService(10, 1, failingOnce, eventPublisher);
+        final var dropped = orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+        final var written = orderIngestService.accept(456L, EXISTING_USER_EMAIL);
+
+        // when
+        flush(orderIngestService);
+
+        // then
+        assertThat(orderRepository.findAll()).containsExactly(written);
+        assertThat(meterRegistry.counter("orders.ingest.failures", "stage", "write").count()).isEqualTo(failures + 1);
+        assertThat(meterRegistry.counter("orders.ingest.lost").count()).isEqualTo(lost + 1);
+        orderIngestService.start();
+        assertThat(orderIngestService.accept(dropped.getProductId(), EXISTING_USER_EMAIL)).isNotNull();
+        flush(orderIngestService);
+    }
+
+    @Test
+    void accept_listenerOfWrittenOrdersFails_ordersAreWritten() {
+        // given
+        final var failures = meterRegistry.counter("orders.ingest.failures", "stage", "listener").count();
+        final ApplicationEventPublisher failingPublisher = event -> {
+            throw new IllegalStateException("Listener failure");
+        };
+        final var orderIngestService = orderIngestService(10, 1, jdbcTemplate, failingPublisher);
+        final var first = orderIngestService.accept(123L, EXISTING_USER_EMAIL);
+        final var second = orderIngestService.accept(456L, EXISTING_USER_EMAIL);
+
+        // when
+        flush(orderIngestService);
+
+        // then
+        assertThat(orderRepository.findAll()).containsExactlyInAnyOrder(first, second);
+        assertThat(meterRegistry.counter("orders.ingest.failures", "stage", "listener").count())
+            .isEqualTo(failures + 2);
+    }
+
+    private OrderIngestService orderIngestService(int queueCapacity) {
+        return orderIngestService(queueCapacity, 500, jdbcTemplate, eventPublisher);
+    }
+
+    private OrderIngestService orderIngestService(
+        int queueCapacity,
+        int batchSize,
+        JdbcTemplate jdbcTemplate,
+        ApplicationEventPublisher eventPublisher) {
+        return new OrderIngestService(
+            orderRepository,
+            reqresUserProvider,
+            customerService,
+            jdbcTemplate,
+            eventPublisher,
+            orderKeyIndex,
+            new OrderIngestProperties(queueCapacity, batchSize, Duration.ofSeconds(10)),
+            meterRegistry
+        );
+    }
+
+    private static void flush(OrderIngestService orderIngestService) {
+        if (!orderIngestService.isRunning()) {
+            orderIngestService.start();
+        }
+        orderIngestService.stop();
+    }
+}
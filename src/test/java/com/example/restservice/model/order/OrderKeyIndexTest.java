@@ -0,0 +1,159 @@
+package com.example.restservice.model.order;
+
+import com.example.restservice.model.customer.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderKeyIndexTest {
+    private static final OrderKey JOHN_123 = new OrderKey("john.doe@example.com", 123L);
+    private static final OrderKey JOHN_456 = new OrderKey("john.doe@example.com", 456L);
+    private static final OrderKey JANE_123 = new OrderKey("jane.doe@example.com", 123L);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private SimpleMeterRegistry meterRegistry;
+    private OrderKeyIndex index;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new OrderKeyIndex(
+            orderRepository, mock(PlatformTransactionManager.class), new OrderKeyIndexProperties(true), meterRegistry);
+    }
+
+    @Test
+    void load_tableHasOrders_everyPairIsFound() {
+        // given
+        when(orderRepository.streamKeys()).thenReturn(Stream.of(JOHN_123, JANE_123));
+
+        // when
+        index.load();
+
+        // then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.contains(JOHN_123)).isTrue();
+        assertThat(index.contains(JANE_123)).isTrue();
+        assertThat(index.contains(JOHN_456)).isFalse();
+        assertThat(meterRegistry.counter("orders.index.lookups", "result", "present").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("orders.index.lookups", "result", "absent").count()).isEqualTo(1);
+    }
+
+    @Test
+    void load_orderHasNoProduct_pairIsSkipped() {
+        // given
+        final var withoutProduct = new OrderKey("john.doe@example.com", null);
+        when(orderRepository.streamKeys()).thenReturn(Stream.of(JOHN_123, withoutProduct));
+
+        // when
+        index.load();
+
+        // then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.contains(withoutProduct)).isFalse();
+        assertThat(meterRegistry.counter("orders.index.lookups", "result", "absent").count()).isZero();
+    }
+
+    @Test
+    void contains_orderHasNoProduct_pairIsNotFoundAndIndexIsUnchanged() {
+        // given
+        final var withoutProduct = new OrderKey("john.doe@example.com", null);
+        index.add(JOHN_123);
+
+        // when
+        index.onOrderCreated(new OrderCreatedEvent(new Order(1L, null, new Customer(1L, "john.doe@example.com", "John", "Doe"))));
+        index.stale(withoutProduct);
+        index.remove(withoutProduct);
+
+        // then
+        assertThat(index.contains(withoutProduct)).isFalse();
+        assertThat(index.contains(JOHN_123)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void load_indexIsDisabled_indexIsNeverReady() {
+        // given
+        index = new OrderKeyIndex(
+            orderRepository, mock(PlatformTransactionManager.class), new OrderKeyIndexProperties(false), meterRegistry);
+
+        // when
+        index.load();
+
+        // then
+        assertThat(index.isReady()).isFalse();
+    }
+
+    @Test
+    void onOrderCreated_orderIsCommitted_pairIsAdded() {
+        // when
+        index.onOrderCreated(new OrderCreatedEvent(new Order(1L, 123L, new Customer(1L, "john.doe@example.com", "John", "Doe"))));
+
+        // then
+        assertThat(index.contains(JOHN_123)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void remove_manyPairsCollide_remainingPairsAreStillFound() {
+        // given
+        keys().forEach(index::add);
+
+        // when
+        keys().filter(key -> key.productId() % 3 == 0).forEach(index::remove);
+
+        // then
+        assertThat(keys().filter(index::contains)).allMatch(key -> key.productId() % 3 != 0);
+        assertThat(keys().filter(key -> !index.contains(key))).allMatch(key -> key.productId() % 3 == 0);
+        assertThat(index.size()).isEqualTo(keys().filter(key -> key.productId() % 3 != 0).count());
+    }
+
+    @Test
+    void add_pairIsAddedTwice_pairIsCountedOnce() {
+        // when
+        index.add(JOHN_123);
+        index.add(JOHN_123);
+
+        // then
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void stale_indexIsReady_pairIsAddedAndCounted() {
+        // given
+        when(orderRepository.streamKeys()).thenReturn(Stream.of());
+        index.load();
+
+        // when
+        index.stale(JOHN_123);
+
+        // then
+        assertThat(index.contains(JOHN_123)).isTrue();
+        assertThat(meterRegistry.counter("orders.index.stale").count()).isEqualTo(1);
+    }
+
+    @Test
+    void estimatedBytes_pairsAreAdded_footprintIsReported() {
+        // given
+        final var empty = index.estimatedBytes();
+
+        // when
+        keys().forEach(index::add);
+
+        // then
+        assertThat(meterRegistry.get("orders.index.memory").gauge().value()).isGreaterThan(empty);
+        assertThat(meterRegistry.get("orders.index.size").gauge().value()).isEqualTo(10_000);
+    }
+
+    private static Stream<OrderKey> keys() {
+        return LongStream.range(0, 10_000).mapToObj(i -> new OrderKey("user" + (i % 100) + "@example.com", i / 100));
+    }
+}
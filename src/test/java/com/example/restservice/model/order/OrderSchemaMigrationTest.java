@@ -0,0 +1,65 @@
+package com.example.restservice.model.order;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates, with the application's Flyway settings, a schema of its own holding the {@code orders} table as Hibernate
+ * created it from the first {@link Order} entity with {@code ddl-auto=update}.
+ */
+@SpringBootTest
+class OrderSchemaMigrationTest {
+    private static final String SCHEMA = "orders_upgrade";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("create schema " + SCHEMA);
+        jdbcTemplate.execute("create table " + SCHEMA + ".orders (order_id bigint generated by default as identity, "
+            + "email varchar(255), first_name varchar(255), last_name varchar(255), product_id bigint, "
+            + "primary key (order_id))");
+        jdbcTemplate.update("insert into " + SCHEMA + ".orders (email, first_name, last_name, product_id) values "
+            + "('john.doe@example.com', 'John', 'Doe', 123), ('john.doe@example.com', 'John', 'Doe', 456), "
+            + "('jane.doe@example.com', 'Jane', 'Doe', 123), ('john.doe@example.com', 'John', 'Doe', 123), "
+            + "('jane.doe@example.com', 'Jane', 'Doe', null), ('jane.doe@example.com', 'Jane', 'Doe', null)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.execute("drop schema " + SCHEMA + " cascade");
+    }
+
+    @Test
+    void migrate_ordersTableWasCreatedByHibernate_ordersAreMigratedWithoutDuplicatesAndNewIdsFollowThem() {
+        // when
+        final var result = Flyway.configure()
+            .configuration(flyway.getConfiguration())
+            .schemas(SCHEMA)
+            .defaultSchema(SCHEMA)
+            .load()
+            .migrate();
+
+        // then
+        assertThat(result.success).isTrue();
+        assertThat(jdbcTemplate.queryForList("select o.order_id || ' ' || c.email || ' ' || coalesce(o.product_id, 0) from "
+            + SCHEMA + ".orders o join " + SCHEMA + ".customers c on c.customer_id = o.customer_id order by o.order_id",
+            String.class))
+            .containsExactly("1 john.doe@example.com 123", "2 john.doe@example.com 456", "3 jane.doe@example.com 123",
+                "5 jane.doe@example.com 0", "6 jane.doe@example.com 0");
+        final var lastIdOfNextBlock = jdbcTemplate.queryForObject(
+            "select nextval('" + SCHEMA + "." + Order.ID_SEQUENCE + "')", Long.class);
+        assertThat(lastIdOfNextBlock - Order.ID_BLOCK_SIZE + 1).isGreaterThan(6);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.restservice.model.order;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every filter combination of {@link OrderSpecifications}, and of the same conditions in SQL that
+ * {@link OrderSearchRepositoryImpl#forEachRow} reads listings with, in both directions, must be answered with all of its
+ * conditions evaluated by an index rather than filtered row by row. The tables are emptied, filled with many users and
+ * products and analyzed first so that the planner costs a populated table; all of it is rolled back afterwards. The
+ * customers, far fewer than their orders, may still be read whole to hash join them.
+ */
+@SpringBootTest
+@Transactional
+class OrderSearchIndexTest {
+    private static final String SELECT = "select o.order_id, o.product_id, c.email, c.first_name, c.last_name "
+        + "from orders o join customers c on c.customer_id = o.customer_id ";
+    private static final String VERSION = "select count(*), max(o.order_id) "
+        + "from orders o join customers c on c.customer_id = o.customer_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "where o.order_id > 0 order by o.order_id asc",
+        "where o.order_id < 1000 order by o.order_id desc",
+        "where c.email = 'user12@example.com' order by o.order_id asc",
+        "where c.email = 'user12@example.com' and o.order_id < 1000 order by o.order_id desc",
+        "where o.product_id = 12 order by o.order_id asc",
+        "where o.product_id = 12 and o.order_id < 1000 order by o.order_id desc",
+        "where c.email = 'user12@example.com' and o.product_id = 12 order by o.order_id asc",
+        "where o.order_id >= 10 and o.order_id <= 1000 order by o.order_id asc",
+        "where c.email = 'user12@example.com' and o.order_id >= 10 and o.order_id <= 1000 order by o.order_id desc",
+        "where o.product_id = 12 and o.order_id >= 10 and o.order_id <= 1000 and o.order_id > 20 order by o.order_id asc"
+    })
+    void search_anyFilterCombination_indexIsUsed(String criteria) {
+        // given
+        populate();
+
+        // when
+        final var plan = String.join("\n", jdbcTemplate.queryForList("explain " + SELECT + criteria + " limit 100", String.class));
+
+        // then
+        assertThat(plan).doesNotContain("Seq Scan on orders", "Filter:");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "where o.order_id >= 49900",
+        "where c.email = 'user12@example.com' and o.order_id >= 49900",
+        "where o.product_id = 12 and o.order_id >= 24100"
+    })
+    void version_ordersSinceAnId_onlyTheirIndexRangeIsScanned(String criteria) {
+        // given
+        populate();
+
+        // when
+        final var plan = String.join("\n", jdbcTemplate.queryForList("explain " + VERSION + criteria, String.class));
+
+        // then
+        assertThat(plan).doesNotContain("Seq Scan on orders", "Filter:");
+    }
+
+    private void populate() {
+        jdbcTemplate.execute("delete from orders");
+        jdbcTemplate.execute("delete from customers");
+        jdbcTemplate.execute("""
+            insert into customers (customer_id, email, first_name, last_name)
+            select i, 'user' || i || '@example.com', 'First', 'Last'
+            from generate_series(0, 1999) i""");
+        jdbcTemplate.execute("""
+            insert into orders (order_id, product_id, customer_id)
+            select i, i / 2000, i % 2000
+            from generate_series(1, 50000) i""");
+        jdbcTemplate.execute("analyze customers");
+        jdbcTemplate.execute("analyze orders");
+    }
+}
@@ -1,24 +1,41 @@
 package com.example.restservice.model.order;
 
+import com.example.restservice.model.customer.Customer;
+import com.example.restservice.model.customer.CustomerService;
 import com.example.restservice.model.order.exceptions.*;
 import com.example.restservice.model.user.ReqresUserProvider;
 import com.example.restservice.model.user.User;
 import com.example.restservice.model.user.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.any;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
+@DisabledInAotMode
 class OrderServiceTest {
     @MockBean
     private ReqresUserProvider reqresUserProvider;
@@ -26,13 +43,31 @@ class OrderServiceTest {
     @MockBean
     private OrderRepository orderRepository;
 
+    @MockBean
+    private OrderKeyIndex orderKeyIndex;
+
+    @MockBean
+    private CustomerService customerService;
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Customer JOHN = new Customer(1L, "john.doe@example.com", "John", "Doe");
+    private static final Customer JANE = new Customer(2L, "jane.doe@example.com", "Jane", "Doe");
+
+    @BeforeEach
+    public void setup() {
+        when(customerService.getOrCreate(new User(JOHN.getEmail(), "John", "Doe"))).thenReturn(JOHN);
+        when(customerService.getOrCreateAll(anyCollection())).thenReturn(Map.of(JOHN.getEmail(), JOHN));
+    }
+
     @Test
     void getById_orderExists_orderIsReturned() {
         // given
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(new Order(12345L, "john.doe@example.com", "John", "Doe")));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(new Order(12345L, JOHN)));
 
         // when
         final var order = orderService.getById(1L);
@@ -54,41 +89,123 @@ class OrderServiceTest {
     }
 
     @Test
-    void getAll_orderDoesNotExists_ExceptionIsThrown() {
+    void getById_projectionIsRequested_projectionIsReturnedWithoutEntity() {
+        // given
+        when(orderRepository.findByOrderId(1L, OrderKey.class)).thenReturn(Optional.of(new OrderKey("john.doe@example.com", 12345L)));
+
+        // when
+        final var order = orderService.getById(1L, OrderKey.class);
+
+        // then
+        assertThat(order).isEqualTo(new OrderKey("john.doe@example.com", 12345L));
+        verify(orderRepository, never()).findById(1L);
+    }
+
+    @Test
+    void forEach_versionIsGiven_rowsAreHandedToHandler() {
+        // given
+        doAnswer(invocation -> {
+            invocation.<OrderRowHandler>getArgument(3).row(1L, 123L, JOHN.getEmail(), "John", "Doe");
+            invocation.<OrderRowHandler>getArgument(3).row(2L, 456L, JANE.getEmail(), "Jane", "Doe");
+            return null;
+        }).when(orderRepository).forEachRow(eq(OrderFilter.NONE), isNull(), eq(0), any());
+        final var emails = new ArrayList<String>();
+
+        // when
+        orderService.forEach(OrderFilter.NONE, null, new OrderVersion(2L, 2L, 1L),
+            (orderId, productId, email, firstName, lastName) -> emails.add(email));
+
+        // then
+        assertThat(emails).containsExactly(JOHN.getEmail(), JANE.getEmail());
+    }
+
+    @Test
+    void getPage_noCursorIsGiven_pageStartsAtFirstOrder() {
         // given
-        final var order1 = new Order(123L, "john.doe@example.com", "John", "Doe");
-        final var order2 = new Order(456L, "jane.doe@example.com", "Jane", "Doe");
+        final var order = new Order(123L, JOHN);
 
-        when(orderRepository.findAll()).thenReturn(List.of(order1, order2));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(0L, PageRequest.of(0, 10)))
+            .thenReturn(List.of(order));
 
         // when
-        final var orders = orderService.getAll();
+        final var orders = orderService.getPage(null, 10);
 
         // then
-        assertThat(orders).hasSize(2).containsExactlyInAnyOrder(order1, order2);
+        assertThat(orders).containsExactly(order);
     }
 
     @Test
     void save_orderIsValidAndSavedByRepository_savedOrderIsReturned() {
         // given
-        final var order = new Order(123L, "john.doe@example.com", "John", "Doe");
+        final var order = new Order(123L, JOHN);
 
         when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
             Optional.of(new User("john.doe@example.com", "John", "Doe")));
         when(orderRepository.findAll()).thenReturn(List.of());
-        when(orderRepository.save(order)).thenReturn(order);
+        when(orderRepository.save(order)).thenReturn(saved(order, 1L));
 
         // when
         final var savedOrder = orderService.save(123L, "john.doe@example.com");
 
         // then
-        assertThat(savedOrder).isEqualTo(order);
+        assertThat(savedOrder).isEqualTo(saved(order, 1L));
+    }
+
+    @Test
+    void save_orderIsSaved_everyStageIsTimed() {
+        // given
+        final var order = new Order(123L, JOHN);
+        final var userLookups = meterRegistry.timer("orders.save", "stage", "user_lookup").count();
+        final var customerLookups = meterRegistry.timer("orders.save", "stage", "customer_lookup").count();
+        final var inserts = meterRegistry.timer("orders.save", "stage", "insert").count();
+        final var created = meterRegistry.counter("orders.created").count();
+
+        when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
+            Optional.of(new User("john.doe@example.com", "John", "Doe")));
+        when(orderRepository.save(order)).thenReturn(saved(order, 1L));
+
+        // when
+        orderService.save(123L, "john.doe@example.com");
+
+        // then
+        assertThat(meterRegistry.timer("orders.save", "stage", "user_lookup").count()).isEqualTo(userLookups + 1);
+        assertThat(meterRegistry.timer("orders.save", "stage", "customer_lookup").count()).isEqualTo(customerLookups + 1);
+        assertThat(meterRegistry.timer("orders.save", "stage", "insert").count()).isEqualTo(inserts + 1);
+        assertThat(meterRegistry.counter("orders.created").count()).isEqualTo(created + 1);
+    }
+
+    @Test
+    void saveAll_batchContainsRejectedOrders_onlyValidOrdersAreSaved() {
+        // given
+        final var john = new User("john.doe@example.com", "John", "Doe");
+        final var newOrder = new Order(123L, JOHN);
+
+        when(reqresUserProvider.getUsersByEmail(anyCollection())).thenReturn(Map.of(john.email(), john));
+        when(orderRepository.findKeys(anyCollection(), anyCollection())).thenReturn(
+            List.of(new OrderKey("john.doe@example.com", 456L)));
+        when(orderRepository.saveAll(List.of(newOrder))).thenReturn(List.of(saved(newOrder, 1L)));
+
+        // when
+        final var results = orderService.saveAll(List.of(
+            new OrderKey("john.doe@example.com", 123L),
+            new OrderKey("john.doe@example.com", 456L),
+            new OrderKey("unknown.person@example.com", 123L),
+            new OrderKey("john.doe@example.com", 123L)
+        ));
+
+        // then
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0).order()).isEqualTo(saved(newOrder, 1L));
+        assertThat(results.get(1).error()).isInstanceOf(InvalidOrderException.class);
+        assertThat(results.get(2).error()).isInstanceOf(UserNotFoundException.class);
+        assertThat(results.get(3).error()).isInstanceOf(InvalidOrderException.class);
+        verify(orderRepository).saveAll(List.of(newOrder));
     }
 
     @Test
     void save_userDoesNotExist_exceptionIsThrown() {
         // given
-        final var order = new Order(123L, "john.doe@example.com", "John", "Doe");
+        final var order = new Order(123L, JOHN);
 
         when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(Optional.empty());
         when(orderRepository.findAll()).thenReturn(List.of());
@@ -101,21 +218,40 @@ class OrderServiceTest {
     @Test
     void save_productWasAlreadyOrderedByUser_exceptionIsThrown() {
         // given
-        final var order = new Order(123L, "john.doe@example.com", "John", "Doe");
+        final var order = new Order(123L, JOHN);
 
         when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
             Optional.of(new User("john.doe@example.com", "John", "Doe")));
-        when(orderRepository.findAll(any(Specification.class))).thenReturn(List.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
+        when(orderRepository.save(order)).thenThrow(new DataIntegrityViolationException(
+            "duplicate key value violates unique constraint",
+            new ConstraintViolationException("duplicate key", null, Order.CUSTOMER_PRODUCT_CONSTRAINT)
+        ));
 
         // when & then
         assertThrows(InvalidOrderException.class, () -> orderService.save(123L, "john.doe@example.com"));
     }
 
+    @Test
+    void save_otherConstraintIsViolated_exceptionIsThrown() {
+        // given
+        final var order = new Order(123L, JOHN);
+
+        when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
+            Optional.of(new User("john.doe@example.com", "John", "Doe")));
+        when(orderRepository.save(order)).thenThrow(new DataIntegrityViolationException(
+            "null value in column violates not-null constraint",
+            new ConstraintViolationException("not null", null, "orders_email_not_null")
+        ));
+
+        // when & then
+        final var exception = assertThrows(OrderException.class, () -> orderService.save(123L, "john.doe@example.com"));
+        assertThat(exception).isNotInstanceOf(InvalidOrderException.class);
+    }
+
     @Test
     void save_repositoryThrowsException_exceptionIsThrown() {
         // given
-        final var order = new Order(123L, "john.doe@example.com", "John", "Doe");
+        final var order = new Order(123L, JOHN);
 
         when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
             Optional.of(new User("john.doe@example.com", "John", "Doe")));
@@ -126,4 +262,65 @@ class OrderServiceTest {
         assertThrows(OrderException.class, () -> orderService.save(123L, "john.doe@example.com"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void save_productIsInIndex_exceptionIsThrownWithoutInsert() {
+        // given
+        when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
+            Optional.of(new User("john.doe@example.com", "John", "Doe")));
+        when(orderKeyIndex.isReady()).thenReturn(true);
+        when(orderKeyIndex.contains(new OrderKey("john.doe@example.com", 123L))).thenReturn(true);
+
+        // when & then
+        assertThrows(InvalidOrderException.class, () -> orderService.save(123L, "john.doe@example.com"));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void save_indexMissedAnExistingOrder_indexIsToldItIsStale() {
+        // given
+        final var order = new Order(123L, JOHN);
+
+        when(reqresUserProvider.getUserByEmail("john.doe@example.com")).thenReturn(
+            Optional.of(new User("john.doe@example.com", "John", "Doe")));
+        when(orderKeyIndex.isReady()).thenReturn(true);
+        when(orderRepository.save(order)).thenThrow(new DataIntegrityViolationException(
+            "duplicate key value violates unique constraint",
+            new ConstraintViolationException("duplicate key", null, Order.CUSTOMER_PRODUCT_CONSTRAINT)
+        ));
+
+        // when
+        assertThrows(InvalidOrderException.class, () -> orderService.save(123L, "john.doe@example.com"));
+
+        // then
+        verify(orderKeyIndex).stale(new OrderKey("john.doe@example.com", 123L));
+    }
+
+    @Test
+    void saveAll_indexIsReady_existingOrdersAreNotQueried() {
+        // given
+        final var john = new User("john.doe@example.com", "John", "Doe");
+        final var newOrder = new Order(123L, JOHN);
+
+        when(reqresUserProvider.getUsersByEmail(anyCollection())).thenReturn(Map.of(john.email(), john));
+        when(orderKeyIndex.isReady()).thenReturn(true);
+        when(orderKeyIndex.contains(new OrderKey("john.doe@example.com", 456L))).thenReturn(true);
+        when(orderRepository.saveAll(List.of(newOrder))).thenReturn(List.of(saved(newOrder, 1L)));
+
+        // when
+        final var results = orderService.saveAll(List.of(
+            new OrderKey("john.doe@example.com", 123L),
+            new OrderKey("john.doe@example.com", 456L)
+        ));
+
+        // then
+        assertThat(results.get(0).order()).isEqualTo(saved(newOrder, 1L));
+        assertThat(results.get(1).error()).isInstanceOf(InvalidOrderException.class);
+        verify(orderRepository, never()).findKeys(anyCollection(), anyCollection());
+    }
+
+    private static Order saved(Order order, Long orderId) {
+        final var saved = new Order(order.getProductId(), order.getCustomer());
+        ReflectionTestUtils.setField(saved, "orderId", orderId);
+        return saved;
+    }
+}
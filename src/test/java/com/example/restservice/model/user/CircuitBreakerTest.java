@@ -0,0 +1,97 @@
+package com.example.restservice.model.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker =
+        new CircuitBreaker("test", 3, Duration.ofSeconds(10), nanoTime::get, meterRegistry);
+
+    @Test
+    void onFailure_thresholdIsReached_callsAreRejected() {
+        // given
+        failTimes(3);
+
+        // when
+        final var permitted = circuitBreaker.tryAcquirePermission();
+
+        // then
+        assertThat(permitted).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.counter("circuitbreaker.transitions", "name", "test", "to", "open").count()).isEqualTo(1);
+    }
+
+    @Test
+    void onSuccess_failuresAreNotConsecutive_breakerStaysClosed() {
+        // given
+        failTimes(2);
+        circuitBreaker.onSuccess();
+        failTimes(2);
+
+        // when
+        final var permitted = circuitBreaker.tryAcquirePermission();
+
+        // then
+        assertThat(permitted).isTrue();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void tryAcquirePermission_openDurationPassed_singleTrialCallIsPermitted() {
+        // given
+        failTimes(3);
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // when
+        final var trial = circuitBreaker.tryAcquirePermission();
+        final var concurrent = circuitBreaker.tryAcquirePermission();
+
+        // then
+        assertThat(trial).isTrue();
+        assertThat(concurrent).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void onSuccess_trialCallSucceeds_breakerIsClosed() {
+        // given
+        failTimes(3);
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.tryAcquirePermission();
+
+        // when
+        circuitBreaker.onSuccess();
+
+        // then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void onFailure_trialCallFails_breakerIsOpenedAgain() {
+        // given
+        failTimes(3);
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.tryAcquirePermission();
+
+        // when
+        circuitBreaker.onFailure();
+
+        // then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            circuitBreaker.onFailure();
+        }
+    }
+}
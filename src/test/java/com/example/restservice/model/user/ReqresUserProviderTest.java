@@ -0,0 +1,146 @@
+package com.example.restservice.model.user;
+
+import com.example.restservice.model.user.exceptions.UserException;
+import com.example.restservice.model.user.exceptions.UserProviderUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReqresUserProviderTest {
+    private static final int PER_PAGE = 2;
+    private static final int TOTAL = 5;
+    private static final int TOTAL_PAGES = 3;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<Integer> requestedPages = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> failingPages = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> failingOncePages = ConcurrentHashMap.newKeySet();
+    private HttpServer stub;
+    private ReqresUserProvider userProvider;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/api/users", exchange -> {
+            final var page = Integer.parseInt(exchange.getRequestURI().getQuery().replace("page=", ""));
+            requests.incrementAndGet();
+            requestedPages.add(page);
+
+            final var body = usersPage(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            final var failing = failingPages.contains(page) || failingOncePages.remove(page);
+            exchange.sendResponseHeaders(failing ? 500 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stub.start();
+
+        final var baseUri = URI.create("http://localhost:" + stub.getAddress().getPort() + "/api/users");
+        userProvider = new ReqresUserProvider(
+            new UserProviderProperties(
+                new UserProviderProperties.Cache(Duration.ofMinutes(10), Duration.ofMinutes(1)),
+                new UserProviderProperties.Reqres(
+                    baseUri, 2, Duration.ofSeconds(1), Duration.ofSeconds(2), 1, Duration.ofMillis(10), 4,
+                    new UserProviderProperties.CircuitBreaker(2, Duration.ofMinutes(1))
+                )
+            ),
+            new ObjectMapper(),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        userProvider.shutdown();
+        stub.stop(0);
+    }
+
+    @Test
+    void getUsers_usersAreSpreadOverPages_usersOfAllPagesAreReturned() {
+        // given
+        // when
+        final var users = userProvider.getUsers();
+
+        // then
+        assertThat(requestedPages).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(users).extracting(User::email).containsExactlyInAnyOrderElementsOf(
+            IntStream.rangeClosed(1, TOTAL).mapToObj(ReqresUserProviderTest::email).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getUserByEmail_userIsOnLastPage_userIsReturned() {
+        // given
+        // when
+        final var user = userProvider.getUserByEmail(email(TOTAL));
+
+        // then
+        assertThat(user).contains(new User(email(TOTAL), "First5", "Last5"));
+    }
+
+    @Test
+    void getUsers_pageCannotBeFetched_exceptionIsThrown() {
+        // given
+        failingPages.add(2);
+
+        // when & then
+        assertThrows(UserException.class, () -> userProvider.getUsers());
+    }
+
+    @Test
+    void getUsers_pageFailsOnce_pageIsRetried() {
+        // given
+        failingOncePages.add(2);
+
+        // when
+        final var users = userProvider.getUsers();
+
+        // then
+        assertThat(users).hasSize(TOTAL);
+        assertThat(requests).hasValue(TOTAL_PAGES + 1);
+    }
+
+    @Test
+    void getUsers_upstreamKeepsFailing_circuitBreakerRejectsCallsWithoutReachingUpstream() {
+        // given
+        failingPages.add(1);
+        assertThrows(UserException.class, () -> userProvider.getUsers());
+        assertThrows(UserException.class, () -> userProvider.getUsers());
+        final var requestsBeforeOpen = requests.get();
+
+        // when & then
+        assertThrows(UserProviderUnavailableException.class, () -> userProvider.getUsers());
+        assertThat(requests).hasValue(requestsBeforeOpen);
+    }
+
+    private static String usersPage(int page) {
+        final var users = IntStream.rangeClosed((page - 1) * PER_PAGE + 1, Math.min(page * PER_PAGE, TOTAL))
+            .mapToObj(id -> String.format(
+                "{\"id\":%d,\"email\":\"%s\",\"first_name\":\"First%d\",\"last_name\":\"Last%d\",\"avatar\":\"https://reqres.in/img/faces/%d-image.jpg\"}",
+                id, email(id), id, id, id))
+            .collect(Collectors.joining(","));
+
+        return String.format("{\"page\":%d,\"per_page\":%d,\"total\":%d,\"total_pages\":%d,\"data\":[%s]}",
+            page, PER_PAGE, TOTAL, TOTAL_PAGES, users);
+    }
+
+    private static String email(int id) {
+        return "user" + id + "@reqres.in";
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.restservice.model.user;
+
+import com.example.restservice.model.user.exceptions.UserException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserDirectoryCacheTest {
+    private static final User JOHN = new User("john.doe@example.com", "John", "Doe");
+    private static final User JANE = new User("jane.doe@example.com", "Jane", "Doe");
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void get_directoryIsFresh_usersAreLoadedOnce() {
+        // given
+        final var cache = cacheOf(() -> {
+            loads.incrementAndGet();
+            return List.of(JOHN, JANE);
+        });
+
+        // when
+        cache.get();
+        final var directory = cache.get();
+
+        // then
+        assertThat(loads).hasValue(1);
+        assertThat(directory.find(JANE.email())).contains(JANE);
+        assertThat(meterRegistry.counter("users.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("users.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_concurrentColdCalls_onlyOneLoadIsStarted() throws Exception {
+        // given
+        final var release = new CountDownLatch(1);
+        final var cache = cacheOf(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return List.of(JOHN);
+        });
+        final var callers = Executors.newFixedThreadPool(8);
+
+        // when
+        final var results = new ArrayList<Future<UserDirectory>>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(cache::get));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        for (final var result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).find(JOHN.email())).contains(JOHN);
+        }
+        assertThat(loads).hasValue(1);
+        callers.shutdownNow();
+    }
+
+    @Test
+    void get_directoryIsAboutToExpire_currentDirectoryIsReturnedAndRefreshedInBackground() {
+        // given
+        final var users = new ArrayList<>(List.of(JOHN));
+        final var cache = cacheOf(() -> {
+            loads.incrementAndGet();
+            return List.copyOf(users);
+        });
+        cache.get();
+        users.add(JANE);
+        clock.advance(Duration.ofSeconds(55));
+
+        // when
+        final var directory = cache.get();
+
+        // then
+        assertThat(directory.find(JANE.email())).isEmpty();
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get().find(JANE.email())).contains(JANE);
+    }
+
+    @Test
+    void get_reloadFails_staleDirectoryIsServed() {
+        // given
+        final var failing = new AtomicInteger();
+        final var cache = cacheOf(() -> {
+            if (failing.get() > 0) {
+                throw new UserException("reqres.in is down");
+            }
+            return List.of(JOHN);
+        });
+        cache.get();
+        failing.set(1);
+        clock.advance(Duration.ofMinutes(5));
+
+        // when
+        final var directory = cache.get();
+
+        // then
+        assertThat(directory.find(JOHN.email())).contains(JOHN);
+        assertThat(meterRegistry.counter("users.cache.stale.served").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_firstLoadFails_exceptionIsThrown() {
+        // given
+        final var cache = cacheOf(() -> {
+            throw new IllegalStateException("reqres.in is down");
+        });
+
+        // when & then
+        assertThrows(UserException.class, cache::get);
+    }
+
+    private UserDirectoryCache cacheOf(Supplier<List<User>> loader) {
+        return new UserDirectoryCache(
+            loader, Duration.ofMinutes(1), Duration.ofSeconds(10), Runnable::run, clock, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2023-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}